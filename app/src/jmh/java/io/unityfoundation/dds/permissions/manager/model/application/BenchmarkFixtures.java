@@ -0,0 +1,150 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermission;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ReadPartition;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.WritePartition;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicKind;
+import io.unityfoundation.dds.permissions.manager.util.XMLEscaper;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.sec.ECPrivateKey;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.io.pem.PemObject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline stand-ins for what the benchmarks would otherwise get from Secret Manager and the database:
+ * freshly generated self-signed CAs and synthetic grants.
+ */
+final class BenchmarkFixtures {
+
+    static final long GROUP_ID = 7L;
+    static final long APPLICATION_ID = 42L;
+
+    private BenchmarkFixtures() {
+    }
+
+    // Returns the CA certificate and its key as PEM, in the formats the secrets hold them.
+    static String[] generateCertificateAuthority(String commonName) throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        X500Name name = new X500Name("CN=" + commonName);
+        long now = System.currentTimeMillis();
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+                name, BigInteger.valueOf(now), new Date(now - 1000L), new Date(now + TimeUnit.DAYS.toMillis(365)),
+                name, keyPair.getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+        builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.digitalSignature));
+        builder.addExtension(Extension.subjectKeyIdentifier, false,
+                new JcaX509ExtensionUtils().createSubjectKeyIdentifier(keyPair.getPublic()));
+
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256WITHECDSA").build(keyPair.getPrivate())));
+
+        return new String[]{toPem(certificate), toPem(ecPrivateKey(keyPair))};
+    }
+
+    static ApplicationService applicationService() {
+        ApplicationService applicationService = new ApplicationService(null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, new XMLEscaper(), null, null, null);
+        applicationService.certExpiry = 365L;
+        applicationService.permissionExpiry = 30L;
+        applicationService.permissionDomain = 1L;
+        return applicationService;
+    }
+
+    static Application application() {
+        Group group = new Group("BenchmarkGroup");
+        group.setId(GROUP_ID);
+        Application application = new Application("BenchmarkApplication", group);
+        application.setId(APPLICATION_ID);
+        return application;
+    }
+
+    // Every topic gets read and write access; partitions repeat every few topics so entries get merged.
+    static List<ApplicationPermission> grants(Application application, int topics) {
+        Group group = application.getPermissionsGroup();
+        List<ApplicationPermission> grants = new ArrayList<>(topics);
+        for (int i = 0; i < topics; i++) {
+            Topic topic = new Topic("topic_" + i + (i % 10 == 0 ? "<&>" : ""), i % 2 == 0 ? TopicKind.B : TopicKind.C, group);
+            topic.setId((long) i);
+
+            ApplicationPermission grant = new ApplicationPermission(application, topic, true, true);
+            Set<ReadPartition> readPartitions = new HashSet<>();
+            Set<WritePartition> writePartitions = new HashSet<>();
+            for (int p = 0; p < i % 4; p++) {
+                readPartitions.add(new ReadPartition(grant, "partition_" + p));
+                writePartitions.add(new WritePartition(grant, "partition_" + p));
+            }
+            grant.setReadPartitions(readPartitions);
+            grant.setWritePartitions(writePartitions);
+            grants.add(grant);
+        }
+        return grants;
+    }
+
+    static PermissionsGrant grant(ApplicationService applicationService, Application application, int topics) {
+        List<ApplicationPermission> grants = grants(application, topics);
+        List<ApplicationService.PubSubEntry> publishes = new ArrayList<>();
+        List<ApplicationService.PubSubEntry> subscribes = new ArrayList<>();
+        applicationService.buildPubSubList(publishes, grants, true);
+        applicationService.buildPubSubList(subscribes, grants, false);
+
+        return new PermissionsGrant(application.getId(),
+                "CN=" + application.getId() + "_benchmark,GN=" + application.getName() + ",SN=" + GROUP_ID,
+                "2023-01-01T00:00:00Z", "2023-01-31T00:00:00Z", 1L, publishes, subscribes);
+    }
+
+    // SEC1 "EC PRIVATE KEY" with the named curve included, as written by `openssl ecparam -genkey`.
+    private static PemObject ecPrivateKey(KeyPair keyPair) throws IOException {
+        PrivateKeyInfo privateKeyInfo = PrivateKeyInfo.getInstance(keyPair.getPrivate().getEncoded());
+        ECPrivateKey key = ECPrivateKey.getInstance(privateKeyInfo.parsePrivateKey());
+        SubjectPublicKeyInfo publicKeyInfo = SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded());
+        ECPrivateKey keyWithParameters = new ECPrivateKey(256, key.getKey(),
+                publicKeyInfo.getPublicKeyData(), privateKeyInfo.getPrivateKeyAlgorithm().getParameters());
+        return new PemObject("EC PRIVATE KEY", keyWithParameters.getEncoded());
+    }
+
+    private static String toPem(Object object) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JcaPEMWriter pemWriter = new JcaPEMWriter(writer)) {
+            pemWriter.writeObject(object);
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,85 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthority;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthorityCache;
+import org.openjdk.jmh.annotations.*;
+
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMultipart;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CertificateBenchmark {
+
+    private String certificatePem;
+    private String privateKeyPem;
+    private CertificateAuthority identityCA;
+    private CertificateAuthority permissionsCA;
+    private ApplicationService applicationService;
+    private Application application;
+    private KeyPair keyPair;
+    private String permissionsXml;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] identity = BenchmarkFixtures.generateCertificateAuthority("Benchmark Identity CA");
+        String[] permissions = BenchmarkFixtures.generateCertificateAuthority("Benchmark Permissions CA");
+        certificatePem = identity[0];
+        privateKeyPem = identity[1];
+        identityCA = CertificateAuthority.parse(identity[0], identity[1], CertificateAuthorityCache.IDENTITY_SIGNATURE_ALGORITHM);
+        permissionsCA = CertificateAuthority.parse(permissions[0], permissions[1], CertificateAuthorityCache.PERMISSIONS_SIGNATURE_ALGORITHM);
+
+        applicationService = BenchmarkFixtures.applicationService();
+        application = BenchmarkFixtures.application();
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        keyPair = keyPairGenerator.generateKeyPair();
+
+        StringBuilder xml = new StringBuilder();
+        new PermissionsXmlWriter().write(BenchmarkFixtures.grant(applicationService, application, 10), xml);
+        permissionsXml = xml.toString();
+    }
+
+    @Benchmark
+    public X509Certificate makeV3Certificate() throws Exception {
+        return applicationService.makeV3Certificate(identityCA, keyPair.getPublic(), application, "benchmark");
+    }
+
+    @Benchmark
+    public MimeMultipart createSignedMultipart() throws Exception {
+        MimeBodyPart mimeBodyPart = new MimeBodyPart();
+        mimeBodyPart.setText(permissionsXml);
+        return ApplicationService.createSignedMultipart(permissionsCA, mimeBodyPart);
+    }
+
+    @Benchmark
+    public X509Certificate readCertificate() throws Exception {
+        return CertificateAuthority.readCertificate(certificatePem);
+    }
+
+    @Benchmark
+    public PrivateKey readPrivateKey() throws Exception {
+        return CertificateAuthority.readPrivateKey(privateKeyPem);
+    }
+}
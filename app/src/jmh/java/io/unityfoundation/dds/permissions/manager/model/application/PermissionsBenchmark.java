@@ -0,0 +1,99 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import io.micronaut.core.io.Writable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.views.ViewsRenderer;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermission;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PermissionsBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int topics;
+
+    private ApplicationService applicationService;
+    private TemplateService templateService;
+    private PermissionsXmlWriter permissionsXmlWriter;
+    private List<ApplicationPermission> grants;
+    private PermissionsGrant grant;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setup() {
+        permissionsXmlWriter = new PermissionsXmlWriter();
+        templateService = new TemplateService(freemarkerRenderer(), permissionsXmlWriter);
+        applicationService = BenchmarkFixtures.applicationService();
+        Application application = BenchmarkFixtures.application();
+        grants = BenchmarkFixtures.grants(application, topics);
+        grant = BenchmarkFixtures.grant(applicationService, application, topics);
+        dataModel = grant.toDataModel();
+    }
+
+    @Benchmark
+    public String mergeDataAndTemplate() throws IOException {
+        return templateService.mergeDataAndTemplate(dataModel);
+    }
+
+    @Benchmark
+    public String writePermissionsXml() throws IOException {
+        StringBuilder out = new StringBuilder();
+        permissionsXmlWriter.write(grant, out);
+        return out.toString();
+    }
+
+    @Benchmark
+    public List<ApplicationService.PubSubEntry> buildPubSubList() {
+        List<ApplicationService.PubSubEntry> publishes = new ArrayList<>();
+        applicationService.buildPubSubList(publishes, grants, true);
+        return publishes;
+    }
+
+    // Configured like the views module configures FreeMarker: classpath templates under views/
+    // and the default incompatible improvements.
+    private static ViewsRenderer<Map<String, Object>> freemarkerRenderer() {
+        Configuration configuration = new Configuration(Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS);
+        configuration.setClassLoaderForTemplateLoading(PermissionsBenchmark.class.getClassLoader(), "views");
+
+        return new ViewsRenderer<>() {
+            @Override
+            public Writable render(String viewName, Map<String, Object> data, HttpRequest<?> request) {
+                return out -> {
+                    try {
+                        configuration.getTemplate(viewName + ".ftlx").process(data, out);
+                    } catch (TemplateException e) {
+                        throw new IOException(e);
+                    }
+                };
+            }
+
+            @Override
+            public boolean exists(String viewName) {
+                return true;
+            }
+        };
+    }
+}
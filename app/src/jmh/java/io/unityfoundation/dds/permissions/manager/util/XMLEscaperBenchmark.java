@@ -0,0 +1,39 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class XMLEscaperBenchmark {
+
+    @Param({"Sensors.Temperature.Reading", "R&D <lab> \"north\" 'wing'"})
+    public String input;
+
+    private XMLEscaper xmlEscaper;
+
+    @Setup
+    public void setup() {
+        xmlEscaper = new XMLEscaper();
+    }
+
+    @Benchmark
+    public String escape() {
+        return xmlEscaper.escape(input);
+    }
+}
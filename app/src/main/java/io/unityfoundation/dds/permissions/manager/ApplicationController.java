@@ -15,8 +15,8 @@ package io.unityfoundation.dds.permissions.manager;
 
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
-import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.*;
@@ -32,9 +32,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.unityfoundation.dds.permissions.manager.exception.DPMErrorResponse;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
 import io.unityfoundation.dds.permissions.manager.model.application.ApplicationDTO;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationProvisioningService;
 import io.unityfoundation.dds.permissions.manager.model.application.ApplicationService;
+import io.unityfoundation.dds.permissions.manager.model.application.ProvisioningRequestDTO;
+import io.unityfoundation.dds.permissions.manager.model.application.ProvisioningResultDTO;
 import org.bouncycastle.mail.smime.SMIMEException;
 import org.bouncycastle.operator.OperatorCreationException;
+import org.reactivestreams.Publisher;
 
 import javax.mail.MessagingException;
 import javax.validation.Valid;
@@ -50,14 +54,20 @@ import static io.unityfoundation.dds.permissions.manager.model.application.Appli
 public class ApplicationController {
 
     private final ApplicationService applicationService;
+    private final ApplicationProvisioningService applicationProvisioningService;
 
-    public ApplicationController(ApplicationService applicationService) {
+    public ApplicationController(ApplicationService applicationService,
+                                 ApplicationProvisioningService applicationProvisioningService) {
         this.applicationService = applicationService;
+        this.applicationProvisioningService = applicationProvisioningService;
     }
 
-    @Get("{?filter,group,applicationId}")
-    public Page<ApplicationDTO> index(@Valid Pageable pageable, @Nullable String filter, @Nullable Long group, @Nullable Long applicationId) {
-        return applicationService.findAll(pageable, filter, applicationId, group);
+    @Get("{?filter,group,applicationId,cursor}")
+    public HttpResponse<?> index(@Valid Pageable pageable, @Nullable String filter, @Nullable Long group, @Nullable Long applicationId, @Nullable String cursor) {
+        if (cursor != null) {
+            return HttpResponse.ok(applicationService.findAllAfter(cursor, pageable.getSize(), filter, applicationId, group));
+        }
+        return HttpResponse.ok(applicationService.findAll(pageable, filter, applicationId, group));
     }
 
     @Get("/show/{id}")
@@ -142,7 +152,7 @@ public class ApplicationController {
     @Get("/key_pair{?nonce}")
     @Secured("APPLICATION")
     @ExecuteOn(TaskExecutors.IO)
-    public HttpResponse<?> getPrivateKeyAndClientCertificate(@Nullable String nonce) throws IOException, OperatorCreationException, GeneralSecurityException {
+    public HttpResponse<?> getPrivateKeyAndClientCertificate(@Nullable String nonce) throws IOException, OperatorCreationException, GeneralSecurityException, MessagingException, SMIMEException {
         checkNonceValidFormat(nonce);
         return applicationService.getApplicationPrivateKeyAndClientCertificate(nonce);
     }
@@ -151,16 +161,37 @@ public class ApplicationController {
     @Produces(MediaType.TEXT_PLAIN)
     @Secured("APPLICATION")
     @ExecuteOn(TaskExecutors.IO)
-    public HttpResponse<?> getPermissionsFile(@Nullable String nonce) throws IOException, OperatorCreationException, GeneralSecurityException, MessagingException, SMIMEException {
+    public HttpResponse<?> getPermissionsFile(@Nullable String nonce,
+                                              @Nullable @Header(E_TAG_HEADER_NAME) String etag,
+                                              @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) throws IOException, OperatorCreationException, GeneralSecurityException, MessagingException, SMIMEException {
         checkNonceValidFormat(nonce);
-        return applicationService.getPermissionsFile(nonce);
+        return applicationService.getPermissionsFile(nonce, etag != null ? etag : ifNoneMatch);
     }
 
     @Get("/permissions.json")
     @Secured("APPLICATION")
     @ExecuteOn(TaskExecutors.IO)
-    public HttpResponse<?> getPermissionsJson(@Nullable @Header(E_TAG_HEADER_NAME) String etag) throws NoSuchAlgorithmException {
-        return applicationService.getPermissionJson(etag);
+    public HttpResponse<?> getPermissionsJson(@Nullable @Header(E_TAG_HEADER_NAME) String etag,
+                                              @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) throws NoSuchAlgorithmException {
+        return applicationService.getPermissionJson(etag != null ? etag : ifNoneMatch);
+    }
+
+    @Post("/provision")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON_STREAM)
+    @ApiResponse(
+            responseCode = "200", description = "One JSON object per line, in completion order.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_STREAM, schema = @Schema(implementation = ProvisioningResultDTO.class))
+    )
+    @ApiResponse(responseCode = "4xx", description = "Bad Request.",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = DPMErrorResponse.class)))
+    )
+    @ExecuteOn(TaskExecutors.IO)
+    public Publisher<ProvisioningResultDTO> provision(@Body ProvisioningRequestDTO request) throws IOException, OperatorCreationException, GeneralSecurityException {
+        if (request.getApplications() != null) {
+            request.getApplications().forEach(entry -> checkNonceValidFormat(entry.getNonce()));
+        }
+        return applicationProvisioningService.provision(request);
     }
 
     private void checkNonceValidFormat(String nonce) {
@@ -13,7 +13,7 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager;
 
-import io.micronaut.data.model.Page;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.*;
@@ -42,16 +42,22 @@ public class ApplicationPermissionController {
         this.applicationPermissionService = applicationPermissionService;
     }
 
-    @Get("/topic/{topic}")
+    @Get("/topic/{topic}{?cursor}")
     @ExecuteOn(TaskExecutors.IO)
-    public Page<AccessPermissionDTO> indexIndexByTopicId(Long topic, @Valid Pageable pageable) {
-        return applicationPermissionService.indexByTopicId(topic, pageable);
+    public HttpResponse<?> indexIndexByTopicId(Long topic, @Valid Pageable pageable, @Nullable String cursor) {
+        if (cursor != null) {
+            return HttpResponse.ok(applicationPermissionService.indexByTopicIdAfter(topic, cursor, pageable.getSize()));
+        }
+        return HttpResponse.ok(applicationPermissionService.indexByTopicId(topic, pageable));
     }
 
-    @Get("/application/{application}")
+    @Get("/application/{application}{?cursor}")
     @ExecuteOn(TaskExecutors.IO)
-    public Page<AccessPermissionDTO> indexByApplicationId(Long application, @Valid Pageable pageable) {
-        return applicationPermissionService.indexByApplicationId(application, pageable);
+    public HttpResponse<?> indexByApplicationId(Long application, @Valid Pageable pageable, @Nullable String cursor) {
+        if (cursor != null) {
+            return HttpResponse.ok(applicationPermissionService.indexByApplicationIdAfter(application, cursor, pageable.getSize()));
+        }
+        return HttpResponse.ok(applicationPermissionService.indexByApplicationId(application, pageable));
     }
 
     @Post("/{topicId}")
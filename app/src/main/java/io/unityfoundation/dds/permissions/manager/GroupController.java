@@ -46,10 +46,13 @@ public class GroupController {
         this.groupService = groupService;
     }
 
-    @Get("{?filter}")
+    @Get("{?filter,cursor}")
     @ExecuteOn(TaskExecutors.IO)
-    public Page<DetailedGroupDTO> index(@Valid Pageable pageable, @Nullable String filter) {
-        return groupService.findAll(pageable, filter);
+    public HttpResponse<?> index(@Valid Pageable pageable, @Nullable String filter, @Nullable String cursor) {
+        if (cursor != null) {
+            return HttpResponse.ok(groupService.findAllAfter(cursor, pageable.getSize(), filter));
+        }
+        return HttpResponse.ok(groupService.findAll(pageable, filter));
     }
 
     @Get("/search/{text}{?role}")
@@ -14,7 +14,6 @@
 package io.unityfoundation.dds.permissions.manager;
 
 import io.micronaut.core.annotation.Nullable;
-import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.*;
@@ -30,7 +29,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.unityfoundation.dds.permissions.manager.exception.DPMErrorResponse;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUser;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserDTO;
-import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserResponseDTO;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
 
 import javax.validation.Valid;
@@ -47,10 +45,13 @@ public class GroupMembershipController {
         this.groupUserService = groupUserService;
     }
 
-    @Get("{?filter,group}")
+    @Get("{?filter,group,cursor}")
     @ExecuteOn(TaskExecutors.IO)
-    public Page<GroupUserResponseDTO> index(@Valid Pageable pageable, @Nullable String filter, @Nullable Long group) {
-        return groupUserService.findAll(pageable, filter, group);
+    public HttpResponse<?> index(@Valid Pageable pageable, @Nullable String filter, @Nullable Long group, @Nullable String cursor) {
+        if (cursor != null) {
+            return HttpResponse.ok(groupUserService.findAllAfter(cursor, pageable.getSize(), filter, group));
+        }
+        return HttpResponse.ok(groupUserService.findAll(pageable, filter, group));
     }
 
     @Post
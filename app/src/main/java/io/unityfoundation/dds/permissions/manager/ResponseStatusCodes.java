@@ -16,6 +16,7 @@ package io.unityfoundation.dds.permissions.manager;
 public interface ResponseStatusCodes {
     // generic
     String UNAUTHORIZED = "unauthorized";
+    String INVALID_CURSOR = "cursor.is-not-valid";
 
     // email
     String INVALID_EMAIL_FORMAT = "email.is-not-format";
@@ -49,6 +50,10 @@ public interface ResponseStatusCodes {
     String IDENTITY_CERT_NOT_FOUND = "application.identity-ca-cert.not-found";
     String PERMISSIONS_CERT_NOT_FOUND = "application.permissions-ca-cert.not-found";
     String GOVERNANCE_FILE_NOT_FOUND = "application.governance-file.not-found";
+    String APPLICATION_PROVISIONING_REQUIRES_APPLICATIONS = "application.provisioning.requires-applications";
+    String APPLICATION_PROVISIONING_BATCH_TOO_LARGE = "application.provisioning.batch-too-large";
+    String APPLICATION_PROVISIONING_FAILED = "application.provisioning.failed";
+    String APPLICATION_SIGNING_CAPACITY_EXCEEDED = "application.signing.capacity-exceeded";
 
     // topic
     String TOPIC_NOT_FOUND = "topic.not-found";
@@ -14,7 +14,6 @@
 package io.unityfoundation.dds.permissions.manager;
 
 import io.micronaut.core.annotation.Nullable;
-import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MediaType;
@@ -46,9 +45,12 @@ public class TopicController {
     }
 
     @ExecuteOn(TaskExecutors.IO)
-    @Get("{?filter,group}")
-    public Page<TopicDTO> index(@Valid Pageable pageable, @Nullable String filter, @Nullable Long group) {
-        return topicService.findAll(pageable, filter, group);
+    @Get("{?filter,group,cursor}")
+    public HttpResponse<?> index(@Valid Pageable pageable, @Nullable String filter, @Nullable Long group, @Nullable String cursor) {
+        if (cursor != null) {
+            return HttpResponse.ok(topicService.findAllAfter(cursor, pageable.getSize(), filter, group));
+        }
+        return HttpResponse.ok(topicService.findAll(pageable, filter, group));
     }
 
     @Get("/kinds")
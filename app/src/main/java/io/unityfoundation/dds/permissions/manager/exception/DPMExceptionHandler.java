@@ -14,6 +14,7 @@
 package io.unityfoundation.dds.permissions.manager.exception;
 
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
@@ -54,6 +55,14 @@ public class DPMExceptionHandler implements ExceptionHandler<DPMException, HttpR
         String code = exception.getResponseStatusCode();
         response.body(List.of(new DPMErrorResponse(errorId, code)));
 
+        // Expected back-pressure; the dpm.crypto.rejected counter tracks how often it happens.
+        if (exception instanceof DPMRetryLaterException) {
+            long retryAfterSeconds = ((DPMRetryLaterException) exception).getRetryAfterSeconds();
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            LOG.debug("Id: {} Code: {}. Retry after {}s", errorId, code, retryAfterSeconds);
+            return response;
+        }
+
         LOG.error("Id: {} Code: {}. See exception below", errorId, code, exception);
         return response;
     }
@@ -0,0 +1,30 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.exception;
+
+import io.micronaut.http.HttpStatus;
+
+// Rendered as 503 Service Unavailable with a Retry-After header.
+public class DPMRetryLaterException extends DPMException {
+    private final long retryAfterSeconds;
+
+    public DPMRetryLaterException(String responseStatusCode, long retryAfterSeconds) {
+        super(responseStatusCode, HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,73 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.data.model.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A page read in keyset mode. It has no total; {@code nextCursor} is absent on the last page.
+ */
+@Introspected
+public final class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> CursorPage<T> empty(int size) {
+        return new CursorPage<>(List.of(), size, null);
+    }
+
+    // One row more than the page, so the query itself tells whether there is a next page.
+    public static Pageable fetch(int size) {
+        return Pageable.from(0, size + 1);
+    }
+
+    // rows are the result of a query limited by fetch(size) and ordered by key and id.
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> key, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+
+        T last = rows.get(size - 1);
+        return new CursorPage<>(rows.subList(0, size), size, new KeysetCursor(key.apply(last), id.apply(last)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).collect(Collectors.toList()), size, nextCursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
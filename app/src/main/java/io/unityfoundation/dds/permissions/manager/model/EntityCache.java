@@ -0,0 +1,110 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micronaut.configuration.hibernate.jpa.JpaConfiguration;
+import io.micronaut.configuration.hibernate.jpa.conf.serviceregistry.builder.configures.StandardServiceRegistryBuilderConfigurer;
+import io.micronaut.context.BeanProvider;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cache.jcache.ConfigSettings;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * The Caffeine regions behind Hibernate's second-level cache, one per
+ * permissions-manager.entity-cache.regions entry. Regions are local to each instance: a change
+ * made through another instance is seen once the entry's time-to-live passes or {@link #clear()} runs.
+ */
+@Singleton
+public class EntityCache implements StandardServiceRegistryBuilderConfigurer, MeterBinder {
+
+    private final List<EntityCacheRegion> regions;
+    private final BeanProvider<SessionFactory> sessionFactory;
+    private final CacheManager cacheManager;
+
+    public EntityCache(List<EntityCacheRegion> regions, BeanProvider<SessionFactory> sessionFactory) {
+        this.regions = regions;
+        this.sessionFactory = sessionFactory;
+        this.cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        regions.forEach(this::createRegion);
+    }
+
+    private void createRegion(EntityCacheRegion region) {
+        // the provider's cache manager is shared by every context in the JVM
+        if (cacheManager.getCache(region.getName()) != null) {
+            cacheManager.destroyCache(region.getName());
+        }
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+        if (region.getTimeToLive() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTimeToLive().toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region.getName(), configuration);
+    }
+
+    @Override
+    public void configure(JpaConfiguration jpaConfiguration, StandardServiceRegistryBuilder standardServiceRegistryBuilder) {
+        standardServiceRegistryBuilder.applySetting(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    // For rows Hibernate did not delete itself, e.g. those removed by an ON DELETE CASCADE.
+    public void evict(Class<?> entityClass, Collection<Long> ids) {
+        Cache cache = sessionFactory.get().getCache();
+        ids.forEach(id -> cache.evictEntityData(entityClass, id));
+    }
+
+    public void clear() {
+        sessionFactory.get().getCache().evictEntityData();
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        regions.forEach(region -> {
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("maximumSize", region.getMaximumSize());
+            settings.put("timeToLive", region.getTimeToLive() == null ? null : region.getTimeToLive().toString());
+            description.put(region.getName(), settings);
+        });
+        return description;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        regions.forEach(region ->
+                new JCacheMetrics<>(cacheManager.getCache(region.getName()), Tags.empty()).bindTo(registry));
+    }
+
+    @PreDestroy
+    void close() {
+        cacheManager.close();
+    }
+}
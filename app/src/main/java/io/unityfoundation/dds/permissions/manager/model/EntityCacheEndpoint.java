@@ -0,0 +1,42 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Write;
+
+import java.util.Map;
+
+// Shows the entity cache regions at /entity-cache; a POST empties them, e.g. after changes made through another instance.
+@Endpoint(id = "entity-cache")
+public class EntityCacheEndpoint {
+
+    private final EntityCache entityCache;
+
+    public EntityCacheEndpoint(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    @Read
+    public Map<String, Object> regions() {
+        return entityCache.describe();
+    }
+
+    @Write
+    public Map<String, Object> clear() {
+        entityCache.clear();
+        return entityCache.describe();
+    }
+}
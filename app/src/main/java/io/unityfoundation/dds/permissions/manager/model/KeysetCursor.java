@@ -0,0 +1,66 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model;
+
+import io.micronaut.http.HttpStatus;
+import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.exception.DPMException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a keyset page: the sort key and id of the last row returned. Clients only see it as an opaque token.
+ */
+public final class KeysetCursor {
+
+    // Requests the first page.
+    public static final String FIRST = "*";
+
+    private static final KeysetCursor START = new KeysetCursor("", 0L);
+
+    private final String key;
+    private final Long id;
+
+    public KeysetCursor(String key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static KeysetCursor parse(String token) {
+        if (FIRST.equals(token)) {
+            return START;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return new KeysetCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new DPMException(ResponseStatusCodes.INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((id + ":" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
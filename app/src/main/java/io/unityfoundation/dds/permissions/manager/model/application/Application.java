@@ -16,6 +16,9 @@ package io.unityfoundation.dds.permissions.manager.model.application;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -23,6 +26,8 @@ import javax.validation.constraints.Size;
 
 @Entity
 @Table(name = "permissions_application")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "application")
 public class Application {
 
     @Id
@@ -47,6 +52,12 @@ public class Application {
     @JoinColumn(name = "permissions_group_id", nullable = false)
     private Group permissionsGroup;
 
+    // Bumped in bulk by ApplicationRepository whenever this application's grants change.
+    // Never written from the entity so a stale copy cannot roll it back.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long permissionsGeneration = 0;
+
     public Application() {
     }
 
@@ -123,4 +134,8 @@ public class Application {
     public void setMakePublic(boolean isPublic) {
         makePublic = isPublic;
     }
+
+    public long getPermissionsGeneration() {
+        return permissionsGeneration;
+    }
 }
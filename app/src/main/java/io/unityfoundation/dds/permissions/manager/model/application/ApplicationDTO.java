@@ -46,6 +46,16 @@ public class ApplicationDTO implements EntityDTO {
         this.groupName = app.getPermissionsGroup().getName();
     }
 
+    // Used by the projection queries in ApplicationRepository.
+    public ApplicationDTO(Long id, String name, String description, Boolean isPublic, Long group, String groupName) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.isPublic = isPublic;
+        this.group = group;
+        this.groupName = groupName;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,166 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.scheduling.TaskExecutors;
+import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.exception.DPMException;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthority;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthorityCache;
+import io.unityfoundation.dds.permissions.manager.security.CryptoExecutor;
+import io.unityfoundation.dds.permissions.manager.security.SecurityUtil;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static io.unityfoundation.dds.permissions.manager.model.application.ProvisioningMetrics.PROVISION;
+
+@Singleton
+public class ApplicationProvisioningService {
+
+    public static final String PROVISIONING_STAGE = "provisioning";
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationProvisioningService.class);
+
+    @Property(name = "permissions-manager.application.provisioning.max-batch-size", defaultValue = "500")
+    protected Integer maxBatchSize;
+    @Property(name = "permissions-manager.application.provisioning.concurrency", defaultValue = "4")
+    protected Integer concurrency;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationService applicationService;
+    private final GroupUserService groupUserService;
+    private final SecurityUtil securityUtil;
+    private final CertificateAuthorityCache certificateAuthorityCache;
+    private final CryptoExecutor cryptoExecutor;
+    private final Scheduler ioScheduler;
+
+    public ApplicationProvisioningService(ApplicationRepository applicationRepository, ApplicationService applicationService,
+                                          GroupUserService groupUserService, SecurityUtil securityUtil,
+                                          CertificateAuthorityCache certificateAuthorityCache, CryptoExecutor cryptoExecutor,
+                                          @Named(TaskExecutors.IO) ExecutorService ioExecutorService) {
+        this.applicationRepository = applicationRepository;
+        this.applicationService = applicationService;
+        this.groupUserService = groupUserService;
+        this.securityUtil = securityUtil;
+        this.certificateAuthorityCache = certificateAuthorityCache;
+        this.cryptoExecutor = cryptoExecutor;
+        this.ioScheduler = Schedulers.fromExecutorService(ioExecutorService, TaskExecutors.IO);
+    }
+
+    // Every check runs up front on the calling thread, so a batch is either rejected as a whole
+    // or streamed in full. Results are emitted in completion order.
+    public Publisher<ProvisioningResultDTO> provision(ProvisioningRequestDTO request)
+            throws GeneralSecurityException, IOException, OperatorCreationException {
+        List<ProvisioningRequestDTO.Entry> entries = request.getApplications();
+        if (entries == null || entries.isEmpty()) {
+            throw new DPMException(ResponseStatusCodes.APPLICATION_PROVISIONING_REQUIRES_APPLICATIONS);
+        } else if (entries.size() > maxBatchSize) {
+            throw new DPMException(ResponseStatusCodes.APPLICATION_PROVISIONING_BATCH_TOO_LARGE);
+        }
+
+        Set<Long> applicationIds = entries.stream()
+                .map(ProvisioningRequestDTO.Entry::getApplication)
+                .collect(Collectors.toSet());
+        if (applicationIds.contains(null)) {
+            throw new DPMException(ResponseStatusCodes.APPLICATION_NOT_FOUND, HttpStatus.NOT_FOUND);
+        }
+
+        Map<Long, Application> applications = applicationRepository.findByIdIn(applicationIds).stream()
+                .collect(Collectors.toMap(Application::getId, Function.identity()));
+        if (applications.size() != applicationIds.size()) {
+            throw new DPMException(ResponseStatusCodes.APPLICATION_NOT_FOUND, HttpStatus.NOT_FOUND);
+        }
+
+        checkCurrentUserCanProvision(applications.values());
+
+        CertificateAuthority permissionsCA = certificateAuthorityCache.getPermissionsCA()
+                .orElseThrow(() -> new DPMException(ResponseStatusCodes.PERMISSIONS_CERT_NOT_FOUND, HttpStatus.NOT_FOUND));
+        CertificateAuthority identityCA = null;
+        if (request.isIncludeKeyPair()) {
+            identityCA = certificateAuthorityCache.getIdentityCA()
+                    .orElseThrow(() -> new DPMException(ResponseStatusCodes.IDENTITY_CERT_NOT_FOUND, HttpStatus.NOT_FOUND));
+        }
+
+        CertificateAuthority finalIdentityCA = identityCA;
+        return Flux.fromIterable(entries)
+                .flatMap(entry -> provision(
+                        applications.get(entry.getApplication()), entry.getNonce(), permissionsCA, finalIdentityCA), concurrency);
+    }
+
+    private void checkCurrentUserCanProvision(Collection<Application> applications) {
+        if (securityUtil.isCurrentUserAdmin()) {
+            return;
+        }
+
+        Optional<User> user = securityUtil.getCurrentlyAuthenticatedUser();
+        if (user.isEmpty()) {
+            throw new DPMException(ResponseStatusCodes.UNAUTHORIZED, HttpStatus.UNAUTHORIZED);
+        }
+
+        Set<Long> groupIds = applications.stream()
+                .map(application -> application.getPermissionsGroup().getId())
+                .collect(Collectors.toSet());
+        for (Long groupId : groupIds) {
+            if (!groupUserService.isUserApplicationAdminOfGroup(groupId, user.get().getId())) {
+                throw new DPMException(ResponseStatusCodes.UNAUTHORIZED, HttpStatus.UNAUTHORIZED);
+            }
+        }
+    }
+
+    // The grants are read and rendered on the I/O pool; only signing and key generation use the crypto pool.
+    // The applications come from a query, so their generation is read from the rows rather than the entity cache.
+    private Mono<ProvisioningResultDTO> provision(Application application, String nonce,
+                                                  CertificateAuthority permissionsCA, CertificateAuthority identityCA) {
+        return Mono.fromCallable(() -> applicationService.generatePermissionsXml(application, application.getPermissionsGeneration(), nonce, PROVISION))
+                .subscribeOn(ioScheduler)
+                .flatMap(permissionsXml -> Mono.fromFuture(cryptoExecutor.submit(PROVISIONING_STAGE, () -> {
+                    ProvisioningResultDTO result = new ProvisioningResultDTO(application.getId(), nonce);
+                    result.setPermissions(applicationService.signPermissionsXml(permissionsCA, permissionsXml, PROVISION));
+                    if (identityCA != null) {
+                        Map<String, String> credentials = applicationService.generateKeyPairAndCertificate(identityCA, application, nonce, PROVISION);
+                        result.setPrivateKey(credentials.get("private"));
+                        result.setCertificate(credentials.get("public"));
+                    }
+                    return result;
+                })))
+                // one failed entry must not end the stream for the rest of the batch
+                .onErrorResume(e -> {
+                    ProvisioningResultDTO failure = new ProvisioningResultDTO(application.getId(), nonce);
+                    if (e instanceof DPMException) {
+                        failure.setCode(((DPMException) e).getResponseStatusCode());
+                    } else {
+                        LOG.error("Could not provision application {}", application.getId(), e);
+                        failure.setCode(ResponseStatusCodes.APPLICATION_PROVISIONING_FAILED);
+                    }
+                    return Mono.just(failure);
+                });
+    }
+}
@@ -14,47 +14,79 @@
 package io.unityfoundation.dds.permissions.manager.model.application;
 
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.search.SearchDocument;
 
+import javax.transaction.Transactional;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ApplicationRepository extends PageableRepository<Application, Long> {
+
+    // List pages select straight into ApplicationDTO. The root alias is the one Micronaut uses when appending the Pageable's sort.
+    String SELECT_DTO = "SELECT new io.unityfoundation.dds.permissions.manager.model.application.ApplicationDTO(application_.id, application_.name, " +
+            "application_.description, application_.makePublic, permissionsGroup_.id, permissionsGroup_.name) FROM Application application_ JOIN application_.permissionsGroup permissionsGroup_";
+    String SELECT_COUNT = "SELECT COUNT(application_) FROM Application application_ JOIN application_.permissionsGroup permissionsGroup_";
+    String FILTER = "(LOWER(application_.name) LIKE LOWER(CONCAT('%', :filter, '%')) OR LOWER(application_.description) LIKE LOWER(CONCAT('%', :filter, '%')) " +
+            "OR LOWER(permissionsGroup_.name) LIKE LOWER(CONCAT('%', :filter, '%')))";
+    // Keyset pages continue after the last (name, id) returned.
+    String AFTER = "(application_.name > :afterName OR (application_.name = :afterName AND application_.id > :afterId)) ORDER BY application_.name, application_.id";
+
     @NonNull
     Optional<Application> findByNameAndPermissionsGroup(@NotNull @NonNull String name, @NotNull @NonNull Group group);
 
-    Page<Application> findByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(String application, String applicationDescription, String group, Pageable page);
+    @Query(value = SELECT_DTO, countQuery = SELECT_COUNT)
+    Page<ApplicationDTO> findAllApplicationDTOs(Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE " + FILTER, countQuery = SELECT_COUNT + " WHERE " + FILTER)
+    Page<ApplicationDTO> findApplicationDTOsByFilter(String filter, Pageable pageable);
 
     Optional<Application> findByNameEquals(@NotBlank String name);
 
-    Page<Application> findById(Long id, Pageable pageable);
+    @Query(value = SELECT_DTO + " WHERE permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE permissionsGroup_.id IN (:groupIds)")
+    Page<ApplicationDTO> findApplicationDTOsByGroupIdIn(List<Long> groupIds, Pageable pageable);
 
-    Page<Application> findAllByPermissionsGroupIdIn(List<Long> groups, Pageable pageable);
+    @Query(value = SELECT_DTO + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds)")
+    Page<ApplicationDTO> findApplicationDTOsByFilterAndGroupIdIn(String filter, List<Long> groupIds, Pageable pageable);
 
-    List<Long> findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(String application, String applicationDescription, String group);
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND " + AFTER)
+    List<ApplicationDTO> findApplicationDTOsByFilterAfter(String filter, String afterName, Long afterId, Pageable pageable);
 
-    Page<Application> findAllByIdInAndPermissionsGroupIdIn(List<Long> all, List<Long> groups, Pageable pageable);
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds) AND " + AFTER)
+    List<ApplicationDTO> findApplicationDTOsByFilterAndGroupIdInAfter(String filter, List<Long> groupIds, String afterName, Long afterId, Pageable pageable);
 
     List<Long> findIdByPermissionsGroupIdIn(List<Long> groups);
 
-    Page<Application> findAllByMakePublicTrue(Pageable pageable);
+    @Join("permissionsGroup")
+    List<Application> findByPermissionsGroupIdIn(Collection<Long> groupIds);
 
-    List<Application> findTop50ByMakePublicTrue();
+    @Query(value = SELECT_DTO + " WHERE application_.id = :id", countQuery = SELECT_COUNT + " WHERE application_.id = :id")
+    Page<ApplicationDTO> findApplicationDTOsById(Long id, Pageable pageable);
 
-    List<Long> findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(String application, String applicationDescription);
+    @Query(value = SELECT_DTO + " WHERE application_.id = :id AND permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE application_.id = :id AND permissionsGroup_.id IN (:groupIds)")
+    Page<ApplicationDTO> findApplicationDTOsByIdAndGroupIdIn(Long id, List<Long> groupIds, Pageable pageable);
 
-    Page<Application> findByMakePublicTrueAndIdIn(List<Long> entityIds, Pageable pageable);
+    Optional<Long> findPermissionsGenerationById(Long id);
 
-    List<Application> findTop50ByMakePublicTrueAndIdIn(List<Long> entityIds);
+    List<Application> findByIdIn(Collection<Long> ids);
 
-    Page<Application> findByIdAndPermissionsGroupId(Long applicationId, Long groupId, Pageable pageable);
+    @Query("SELECT new io.unityfoundation.dds.permissions.manager.search.SearchDocument('APPLICATION', a.id, a.name, a.description, a.makePublic) FROM Application a")
+    List<SearchDocument> findSearchDocuments();
 
-    Page<Application> findByIdAndPermissionsGroupIdIn(Long applicationId, List<Long> groups, Pageable pageable);
-}
\ No newline at end of file
+    @Transactional
+    @Query("UPDATE Application a SET a.permissionsGeneration = a.permissionsGeneration + 1 WHERE a.id IN (:ids)")
+    void incrementPermissionsGeneration(Collection<Long> ids);
+}
@@ -14,18 +14,23 @@
 package io.unityfoundation.dds.permissions.manager.model.application;
 
 import com.nimbusds.jwt.JWTClaimsSet;
+import io.micrometer.core.instrument.Timer;
 import io.micronaut.context.annotation.Property;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
 import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.scheduling.TaskExecutors;
 import io.micronaut.security.authentication.AuthenticationResponse;
 import io.micronaut.security.token.jwt.generator.JwtTokenGenerator;
 import io.micronaut.security.token.jwt.generator.claims.JWTClaimsSetGenerator;
 import io.micronaut.security.token.jwt.validator.AuthenticationJWTClaimsSetAdapter;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.model.CursorPage;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+import io.unityfoundation.dds.permissions.manager.model.KeysetCursor;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermission;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionService;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ReadPartition;
@@ -36,18 +41,23 @@ import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserServi
 import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
+import io.unityfoundation.dds.permissions.manager.search.SearchIndex;
 import io.unityfoundation.dds.permissions.manager.security.ApplicationSecretsClient;
 import io.unityfoundation.dds.permissions.manager.security.BCryptPasswordEncoderService;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthority;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthorityCache;
+import io.unityfoundation.dds.permissions.manager.security.CryptoExecutor;
+import io.unityfoundation.dds.permissions.manager.security.KeyPairPool;
 import io.unityfoundation.dds.permissions.manager.security.PassphraseGenerator;
+import io.unityfoundation.dds.permissions.manager.security.SecretsSnapshot;
 import io.unityfoundation.dds.permissions.manager.security.SecurityUtil;
+import io.unityfoundation.dds.permissions.manager.security.VerifiedPassphraseCache;
+import io.unityfoundation.dds.permissions.manager.util.ETags;
 import io.unityfoundation.dds.permissions.manager.util.XMLEscaper;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import org.bouncycastle.asn1.ASN1EncodableVector;
-import org.bouncycastle.asn1.DERSet;
-import org.bouncycastle.asn1.cms.Attribute;
 import org.bouncycastle.asn1.cms.AttributeTable;
-import org.bouncycastle.asn1.cms.CMSAttributes;
-import org.bouncycastle.asn1.cms.Time;
 import org.bouncycastle.asn1.smime.SMIMECapabilitiesAttribute;
 import org.bouncycastle.asn1.smime.SMIMECapability;
 import org.bouncycastle.asn1.smime.SMIMECapabilityVector;
@@ -56,23 +66,18 @@ import org.bouncycastle.asn1.x500.style.BCStyle;
 import org.bouncycastle.asn1.x509.BasicConstraints;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.cert.CertIOException;
-import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
-import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.cms.CMSAttributeTableGenerator;
+import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
+import org.bouncycastle.cms.SignerInfoGeneratorBuilder;
 import org.bouncycastle.mail.smime.SMIMEException;
 import org.bouncycastle.mail.smime.SMIMESignedGenerator;
-import org.bouncycastle.openssl.PEMKeyPair;
-import org.bouncycastle.openssl.PEMParser;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.openssl.jcajce.JcaPKCS8Generator;
 import org.bouncycastle.operator.OperatorCreationException;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.util.Store;
 
 import javax.mail.MessagingException;
 import javax.mail.Session;
@@ -84,27 +89,34 @@ import javax.transaction.Transactional;
 import javax.xml.bind.DatatypeConverter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
 import java.io.StringWriter;
 import java.math.BigInteger;
 import java.net.URI;
 import java.security.*;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import static io.unityfoundation.dds.permissions.manager.model.application.ProvisioningMetrics.*;
 import static io.unityfoundation.dds.permissions.manager.security.ApplicationSecretsClient.*;
 
 @Singleton
 public class ApplicationService {
 
     public static final String E_TAG_HEADER_NAME = "ETag";
+    public static final String KEY_PAIR_STAGE = "key-pair";
+    public static final String PERMISSIONS_FILE_STAGE = "permissions-file";
+    public static final String PASSPHRASE_STAGE = "passphrase";
+    // the generator adds signingTime (and the digest attributes) on each signature
+    private static final CMSAttributeTableGenerator SIGNED_ATTRIBUTES =
+            new DefaultSignedAttributeTableGenerator(generateSignedAttributes());
 
     @Property(name = "permissions-manager.application.client-certificate.time-expiry", defaultValue = "365")
     protected Long certExpiry;
@@ -121,20 +133,33 @@ public class ApplicationService {
     private final ApplicationPermissionService applicationPermissionService;
     private final PassphraseGenerator passphraseGenerator;
     private final BCryptPasswordEncoderService passwordEncoderService;
+    private final VerifiedPassphraseCache verifiedPassphraseCache;
     private final ApplicationSecretsClient applicationSecretsClient;
+    private final CertificateAuthorityCache certificateAuthorityCache;
+    private final CryptoExecutor cryptoExecutor;
+    private final KeyPairPool keyPairPool;
     private final TemplateService templateService;
+    private final PermissionsDocumentCache permissionsDocumentCache;
     private final JwtTokenGenerator jwtTokenGenerator;
     private final JWTClaimsSetGenerator jwtClaimsSetGenerator;
     private final XMLEscaper xmlEscaper;
-
+    private final ProvisioningMetrics provisioningMetrics;
+    private final SearchIndex searchIndex;
+    private final ExecutorService ioExecutorService;
 
     public ApplicationService(ApplicationRepository applicationRepository, GroupRepository groupRepository,
                               ApplicationPermissionService applicationPermissionService,
                               SecurityUtil securityUtil, GroupUserService groupUserService,
                               PassphraseGenerator passphraseGenerator,
-                              BCryptPasswordEncoderService passwordEncoderService, ApplicationSecretsClient applicationSecretsClient,
-                              TemplateService templateService, JwtTokenGenerator jwtTokenGenerator,
-                              JWTClaimsSetGenerator jwtClaimsSetGenerator, XMLEscaper xmlEscaper) {
+                              BCryptPasswordEncoderService passwordEncoderService, VerifiedPassphraseCache verifiedPassphraseCache,
+                              ApplicationSecretsClient applicationSecretsClient,
+                              CertificateAuthorityCache certificateAuthorityCache, CryptoExecutor cryptoExecutor,
+                              KeyPairPool keyPairPool,
+                              TemplateService templateService, PermissionsDocumentCache permissionsDocumentCache,
+                              JwtTokenGenerator jwtTokenGenerator,
+                              JWTClaimsSetGenerator jwtClaimsSetGenerator, XMLEscaper xmlEscaper,
+                              ProvisioningMetrics provisioningMetrics, SearchIndex searchIndex,
+                              @Named(TaskExecutors.IO) ExecutorService ioExecutorService) {
         this.applicationRepository = applicationRepository;
         this.groupRepository = groupRepository;
         this.securityUtil = securityUtil;
@@ -142,11 +167,19 @@ public class ApplicationService {
         this.applicationPermissionService = applicationPermissionService;
         this.passphraseGenerator = passphraseGenerator;
         this.passwordEncoderService = passwordEncoderService;
+        this.verifiedPassphraseCache = verifiedPassphraseCache;
         this.applicationSecretsClient = applicationSecretsClient;
+        this.certificateAuthorityCache = certificateAuthorityCache;
+        this.cryptoExecutor = cryptoExecutor;
+        this.keyPairPool = keyPairPool;
         this.templateService = templateService;
+        this.permissionsDocumentCache = permissionsDocumentCache;
         this.jwtTokenGenerator = jwtTokenGenerator;
         this.jwtClaimsSetGenerator = jwtClaimsSetGenerator;
         this.xmlEscaper = xmlEscaper;
+        this.provisioningMetrics = provisioningMetrics;
+        this.searchIndex = searchIndex;
+        this.ioExecutorService = ioExecutorService;
     }
 
     public Page<ApplicationDTO> findAll(Pageable pageable, String filter, Long applicationId, Long groupId) {
@@ -155,29 +188,57 @@ public class ApplicationService {
         }
 
         if (applicationId != null) {
-            return getApplicationPage(pageable, applicationId, groupId).map(ApplicationDTO::new);
+            return getApplicationPage(pageable, applicationId, groupId);
         }
 
-        return getApplicationPage(pageable, filter, groupId).map(ApplicationDTO::new);
+        return getApplicationPage(pageable, filter, groupId);
     }
 
-    private Page<Application> getApplicationPage(Pageable pageable, String filter, Long groupId) {
-        List<Long> all;
+    // Keyset mode: ordered by name and id, no count. An empty filter matches every application.
+    public CursorPage<ApplicationDTO> findAllAfter(String cursor, int size, String filter, Long applicationId, Long groupId) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        if (applicationId != null) {
+            return new CursorPage<>(getApplicationPage(Pageable.from(0, size), applicationId, groupId).getContent(), size, null);
+        }
+        String text = filter == null ? "" : filter;
+
+        List<ApplicationDTO> rows;
+        if (securityUtil.isCurrentUserAdmin()) {
+            rows = groupId == null ?
+                    applicationRepository.findApplicationDTOsByFilterAfter(text, after.getKey(), after.getId(), CursorPage.fetch(size)) :
+                    applicationRepository.findApplicationDTOsByFilterAndGroupIdInAfter(text, List.of(groupId), after.getKey(), after.getId(), CursorPage.fetch(size));
+        } else {
+            User user = securityUtil.getCurrentlyAuthenticatedUser().get();
+            List<Long> groups = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
+
+            if (groups.isEmpty() || (groupId != null && !groups.contains(groupId))) {
+                return CursorPage.empty(size);
+            }
+
+            if (groupId != null) {
+                groups = List.of(groupId);
+            }
+
+            rows = applicationRepository.findApplicationDTOsByFilterAndGroupIdInAfter(text, groups, after.getKey(), after.getId(), CursorPage.fetch(size));
+        }
+
+        return CursorPage.of(rows, size, ApplicationDTO::getName, ApplicationDTO::getId);
+    }
+
+    private Page<ApplicationDTO> getApplicationPage(Pageable pageable, String filter, Long groupId) {
         if (securityUtil.isCurrentUserAdmin()) {
             if (filter == null) {
                 if (groupId == null) {
-                    return applicationRepository.findAll(pageable);
+                    return applicationRepository.findAllApplicationDTOs(pageable);
                 }
-                return applicationRepository.findAllByPermissionsGroupIdIn(List.of(groupId), pageable);
+                return applicationRepository.findApplicationDTOsByGroupIdIn(List.of(groupId), pageable);
             }
 
             if (groupId == null) {
-                return applicationRepository.findByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(filter, filter, filter, pageable);
+                return applicationRepository.findApplicationDTOsByFilter(filter, pageable);
             }
 
-            all = applicationRepository.findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(filter, filter, filter);
-
-            return applicationRepository.findAllByIdInAndPermissionsGroupIdIn(all, List.of(groupId), pageable);
+            return applicationRepository.findApplicationDTOsByFilterAndGroupIdIn(filter, List.of(groupId), pageable);
         } else {
             User user = securityUtil.getCurrentlyAuthenticatedUser().get();
             List<Long> groups = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
@@ -192,27 +253,22 @@ public class ApplicationService {
             }
 
             if (filter == null) {
-                return applicationRepository.findAllByPermissionsGroupIdIn(groups, pageable);
-            }
-
-            all = applicationRepository.findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(filter, filter, filter);
-            if (all.isEmpty()) {
-                return Page.empty();
+                return applicationRepository.findApplicationDTOsByGroupIdIn(groups, pageable);
             }
 
-            return applicationRepository.findAllByIdInAndPermissionsGroupIdIn(all, groups, pageable);
+            return applicationRepository.findApplicationDTOsByFilterAndGroupIdIn(filter, groups, pageable);
         }
     }
 
-    private Page<Application> getApplicationPage(Pageable pageable, Long applicationId, Long groupId) {
+    private Page<ApplicationDTO> getApplicationPage(Pageable pageable, Long applicationId, Long groupId) {
 
         List<Long> all;
         if (securityUtil.isCurrentUserAdmin()) {
             if (groupId == null) {
-                return applicationRepository.findById(applicationId, pageable);
+                return applicationRepository.findApplicationDTOsById(applicationId, pageable);
             }
 
-            return applicationRepository.findByIdAndPermissionsGroupId(applicationId, groupId, pageable);
+            return applicationRepository.findApplicationDTOsByIdAndGroupIdIn(applicationId, List.of(groupId), pageable);
         } else {
             User user = securityUtil.getCurrentlyAuthenticatedUser().get();
             List<Long> groups = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
@@ -226,7 +282,7 @@ public class ApplicationService {
                 groups = List.of(groupId);
             }
 
-            return applicationRepository.findByIdAndPermissionsGroupIdIn(applicationId, groups, pageable);
+            return applicationRepository.findApplicationDTOsByIdAndGroupIdIn(applicationId, groups, pageable);
         }
     }
 
@@ -265,11 +321,17 @@ public class ApplicationService {
             }
 
             application = applicationOptional.get();
+            boolean renamed = !Objects.equals(application.getName(), applicationDTO.getName());
             application.setName(applicationDTO.getName());
             application.setDescription(applicationDTO.getDescription());
             application.setMakePublic(isPublic);
 
-            return HttpResponse.ok(new ApplicationDTO(applicationRepository.update(application)));
+            ApplicationDTO updated = new ApplicationDTO(applicationRepository.update(application));
+            if (renamed) {
+                // the name is part of the signed permissions file's subject
+                applicationRepository.incrementPermissionsGeneration(List.of(application.getId()));
+            }
+            return HttpResponse.ok(updated);
         } else {
 
             if (searchApplicationByNameAndGroup.isPresent()) {
@@ -316,6 +378,8 @@ public class ApplicationService {
         applicationPermissionService.deleteAllByApplication(application);
 
         applicationRepository.deleteById(id);
+        verifiedPassphraseCache.invalidate(id);
+        searchIndex.remove(DPMEntity.APPLICATION, id);
         return HttpResponse.seeOther(URI.create("/api/applications"));
     }
 
@@ -378,157 +442,199 @@ public class ApplicationService {
 
         application.setEncryptedPassword(passwordEncoderService.encode(clearTextPassphrase));
         applicationRepository.update(application);
+        verifiedPassphraseCache.invalidate(applicationId);
 
         return HttpResponse.ok(clearTextPassphrase);
     }
 
-    public AuthenticationResponse passwordMatches(Long applicationId, String rawPassword) {
+    // The Argon2 derivation runs on the crypto pool and the rest of the login continues on the IO pool;
+    // a recently verified passphrase skips both and the lookup.
+    public CompletableFuture<AuthenticationResponse> passwordMatches(Long applicationId, String rawPassword) {
+        if (verifiedPassphraseCache.isVerified(applicationId, rawPassword)) {
+            return CompletableFuture.completedFuture(
+                    AuthenticationResponse.success(applicationId.toString(), List.of(UserRole.APPLICATION.toString())));
+        }
+
+        long cacheGeneration = verifiedPassphraseCache.getGeneration();
         Optional<Application> applicationOptional = applicationRepository.findById(applicationId);
         if (applicationOptional.isEmpty()) {
             throw new DPMException(ResponseStatusCodes.APPLICATION_NOT_FOUND, HttpStatus.NOT_FOUND);
         }
-        Application application = applicationOptional.get();
+        String encryptedPassword = applicationOptional.get().getEncryptedPassword();
 
-        if (passwordEncoderService.matches(rawPassword, application.getEncryptedPassword())) {
-            return AuthenticationResponse.success(application.getId().toString(), List.of(UserRole.APPLICATION.toString()));
-        } else {
-            return AuthenticationResponse.failure("Invalid passphrase.");
-        }
+        return cryptoExecutor.submit(PASSPHRASE_STAGE, () -> passwordEncoderService.matches(rawPassword, encryptedPassword))
+                .thenApplyAsync(matches -> {
+                    if (matches) {
+                        verifiedPassphraseCache.put(applicationId, rawPassword, cacheGeneration);
+                        return AuthenticationResponse.success(applicationId.toString(), List.of(UserRole.APPLICATION.toString()));
+                    }
+                    return AuthenticationResponse.failure("Invalid passphrase.");
+                }, ioExecutorService);
     }
 
     public HttpResponse<?> getIdentityCACertificate(String requestEtag) {
-        String etag = applicationSecretsClient.getCorrespondingEtag(IDENTITY_CA_CERT);
-        if (applicationSecretsClient.hasCachedFileBeenUpdated(IDENTITY_CA_CERT)) {
-            etag = applicationSecretsClient.getCorrespondingEtag(IDENTITY_CA_CERT);
-        }
-        if (requestEtag != null && requestEtag.contentEquals(etag)) {
-            return HttpResponse.notModified();
-        }
-
-        Optional<String> identityCACert = applicationSecretsClient.getIdentityCACert();
-        if (identityCACert.isPresent()) {
-            String cert = identityCACert.get();
-
-            return HttpResponse.ok(cert).header(E_TAG_HEADER_NAME, etag);
-        }
-
-        throw new DPMException(ResponseStatusCodes.IDENTITY_CERT_NOT_FOUND, HttpStatus.NOT_FOUND);
+        return getSecretFile(IDENTITY_CA_CERT, requestEtag, ResponseStatusCodes.IDENTITY_CERT_NOT_FOUND, IDENTITY_CA);
     }
 
     public HttpResponse<?> getPermissionsCACertificate(String requestEtag) {
-        String etag = applicationSecretsClient.getCorrespondingEtag(PERMISSIONS_CA_CERT);
-        if (applicationSecretsClient.hasCachedFileBeenUpdated(PERMISSIONS_CA_CERT)) {
-            etag = applicationSecretsClient.getCorrespondingEtag(PERMISSIONS_CA_CERT);
-        }
-        if (requestEtag != null && requestEtag.contentEquals(etag)) {
-            return HttpResponse.notModified();
-        }
-
-        Optional<String> permissionsCACert = applicationSecretsClient.getPermissionsCACert();
-        if (permissionsCACert.isPresent()) {
-            String cert = permissionsCACert.get();
-
-            return HttpResponse.ok(cert).header(E_TAG_HEADER_NAME, etag);
-        }
-
-        throw new DPMException(ResponseStatusCodes.PERMISSIONS_CERT_NOT_FOUND, HttpStatus.NOT_FOUND);
+        return getSecretFile(PERMISSIONS_CA_CERT, requestEtag, ResponseStatusCodes.PERMISSIONS_CERT_NOT_FOUND, PERMISSIONS_CA);
     }
 
     public HttpResponse<?> getGovernanceFile(String requestEtag) {
-        String etag = applicationSecretsClient.getCorrespondingEtag(GOVERNANCE_FILE);
-        if (applicationSecretsClient.hasCachedFileBeenUpdated(GOVERNANCE_FILE)) {
-            etag = applicationSecretsClient.getCorrespondingEtag(GOVERNANCE_FILE);
-        }
-        if (requestEtag != null && requestEtag.contentEquals(etag)) {
-            return HttpResponse.notModified();
-        }
+        return getSecretFile(GOVERNANCE_FILE, requestEtag, ResponseStatusCodes.GOVERNANCE_FILE_NOT_FOUND, GOVERNANCE);
+    }
 
-        Optional<String> governanceFile = applicationSecretsClient.getGovernanceFile();
-        if (governanceFile.isPresent()) {
-            String cert = governanceFile.get();
+    private HttpResponse<?> getSecretFile(String file, String requestEtag, String notFoundCode, String endpoint) {
+        // read the file and its etag from the same snapshot
+        SecretsSnapshot secrets = applicationSecretsClient.getSnapshot();
+        String etag = secrets.getETag(file);
+        if (requestEtag != null && requestEtag.equals(etag)) {
+            return provisioningMetrics.response(endpoint, HttpResponse.notModified());
+        }
 
-            return HttpResponse.ok(cert).header(E_TAG_HEADER_NAME, etag);
+        Optional<String> contents = secrets.getSecret(file);
+        if (contents.isPresent()) {
+            return provisioningMetrics.response(endpoint, HttpResponse.ok(contents.get()).header(E_TAG_HEADER_NAME, etag));
         }
 
-        throw new DPMException(ResponseStatusCodes.GOVERNANCE_FILE_NOT_FOUND, HttpStatus.NOT_FOUND);
+        throw new DPMException(notFoundCode, HttpStatus.NOT_FOUND);
     }
 
-    public HttpResponse<?> getApplicationPrivateKeyAndClientCertificate(String nonce) throws IOException, OperatorCreationException, GeneralSecurityException {
+    public HttpResponse<?> getApplicationPrivateKeyAndClientCertificate(String nonce) throws IOException, OperatorCreationException, GeneralSecurityException, MessagingException, SMIMEException {
 
-        Optional<String> identityCACert = applicationSecretsClient.getIdentityCACert();
-        Optional<String> identityCAKey = applicationSecretsClient.getIdentityCAKey();
+        Optional<CertificateAuthority> identityCA = certificateAuthorityCache.getIdentityCA();
         Optional<Application> applicationOptional = securityUtil.getCurrentlyAuthenticatedApplication();
 
-        if (applicationOptional.isPresent() && identityCACert.isPresent() && identityCAKey.isPresent()) {
+        if (applicationOptional.isPresent() && identityCA.isPresent()) {
             Application application = applicationOptional.get();
+            return provisioningMetrics.response(KEY_PAIR, HttpResponse.ok(cryptoExecutor.execute(KEY_PAIR_STAGE,
+                    () -> generateKeyPairAndCertificate(identityCA.get(), application, nonce, KEY_PAIR))));
+        }
 
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
-            keyPairGenerator.initialize(256);
-            KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        return provisioningMetrics.response(KEY_PAIR, HttpResponse.notFound());
+    }
 
-            X509Certificate x509Certificate = makeV3Certificate(
-                    readCertificate(identityCACert.get()),
-                    readPrivateKey(identityCAKey.get().trim()),
-                    keyPair.getPublic(),
-                    application,
-                    nonce
-            );
+    // CPU-bound; callers run this on the CryptoExecutor.
+    public Map<String, String> generateKeyPairAndCertificate(CertificateAuthority identityCA, Application application,
+                                                             String nonce, String endpoint)
+            throws IOException, OperatorCreationException, GeneralSecurityException {
+        Timer.Sample keygen = provisioningMetrics.start();
+        KeyPair keyPair = keyPairPool.take();
+        provisioningMetrics.stop(keygen, endpoint, KEYGEN);
 
-            Map creds = Map.of(
-                    "private", objectToPEMString(keyPair.getPrivate()),
-                    "public", objectToPEMString(x509Certificate)
-            );
-            return HttpResponse.ok(creds);
-        }
+        Timer.Sample certBuild = provisioningMetrics.start();
+        X509Certificate x509Certificate = makeV3Certificate(
+                identityCA,
+                keyPair.getPublic(),
+                application,
+                nonce
+        );
+        provisioningMetrics.stop(certBuild, endpoint, CERT_BUILD);
 
-        return HttpResponse.notFound();
+        Timer.Sample pemEncode = provisioningMetrics.start();
+        Map<String, String> credentials = Map.of(
+                "private", objectToPEMString(keyPair.getPrivate()),
+                "public", objectToPEMString(x509Certificate)
+        );
+        provisioningMetrics.stop(pemEncode, endpoint, PEM_ENCODE);
+        return credentials;
     }
 
-    public HttpResponse<?> getPermissionsFile(String nonce) throws IOException, GeneralSecurityException, MessagingException, SMIMEException, OperatorCreationException {
-        Optional<String> permissionsCAKey = applicationSecretsClient.getPermissionsCAKey();
-        Optional<String> permissionsCACert = applicationSecretsClient.getPermissionsCACert();
-        Optional<Application> applicationOptional = securityUtil.getCurrentlyAuthenticatedApplication();
+    public HttpResponse<?> getPermissionsFile(String nonce, String requestEtag) throws IOException, GeneralSecurityException, MessagingException, SMIMEException, OperatorCreationException {
+        Long applicationId = securityUtil.getCurrentlyAuthenticatedApplicationId();
+        // read from the row on every request; the second-level cached Application may be behind
+        Optional<Long> generation = applicationRepository.findPermissionsGenerationById(applicationId);
+        if (generation.isEmpty()) {
+            return provisioningMetrics.response(PERMISSIONS_FILE, HttpResponse.notFound());
+        }
+        String etag = generatePermissionsFileEtag(applicationId, generation.get(), nonce);
+        if (ETags.matches(requestEtag, etag)) {
+            return provisioningMetrics.response(PERMISSIONS_FILE, HttpResponse.notModified());
+        }
 
-        if (applicationOptional.isPresent() && permissionsCAKey.isPresent() && permissionsCACert.isPresent()) {
-            //openssl smime -sign -in permissions.ftlx -text -out permissions.ftlx.p7s -signer permissions_ca.pem -inkey permissions_ca_key.pem
-            String permissionsXml = generatePermissionsXml(applicationOptional.get(), nonce);
+        Optional<CertificateAuthority> permissionsCA = certificateAuthorityCache.getPermissionsCA();
+        Optional<Application> applicationOptional = applicationRepository.findById(applicationId);
 
-            MimeBodyPart mimeBodyPart = new MimeBodyPart();
-            mimeBodyPart.setText(permissionsXml);
-            MimeMultipart signedMultipart = createSignedMultipart(
-                    readPrivateKey(permissionsCAKey.get()),
-                    readCertificate(permissionsCACert.get()),
-                    mimeBodyPart);
+        if (applicationOptional.isPresent() && permissionsCA.isPresent()) {
+            Application application = applicationOptional.get();
+            String permissionsXml = generatePermissionsXml(application, generation.get(), nonce, PERMISSIONS_FILE);
+            String signedPermissions = cryptoExecutor.execute(PERMISSIONS_FILE_STAGE,
+                    () -> signPermissionsXml(permissionsCA.get(), permissionsXml, PERMISSIONS_FILE));
 
-            MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
-            message.setContent(signedMultipart);
+            return provisioningMetrics.response(PERMISSIONS_FILE, HttpResponse.ok(signedPermissions)
+                    .header(E_TAG_HEADER_NAME, etag));
+        }
 
-            String result;
-            try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
-                message.writeTo(byteArrayOutputStream);
-                result = byteArrayOutputStream.toString();
-            }
+        return provisioningMetrics.response(PERMISSIONS_FILE, HttpResponse.notFound());
+    }
 
-            return HttpResponse.ok(result);
-        }
+    // CPU-bound; callers run this on the CryptoExecutor.
+    public String signPermissionsXml(CertificateAuthority permissionsCA, String permissionsXml, String endpoint)
+            throws IOException, MessagingException, SMIMEException, OperatorCreationException {
+        //openssl smime -sign -in permissions.ftlx -text -out permissions.ftlx.p7s -signer permissions_ca.pem -inkey permissions_ca_key.pem
+        Timer.Sample signing = provisioningMetrics.start();
+        MimeBodyPart mimeBodyPart = new MimeBodyPart();
+        mimeBodyPart.setText(permissionsXml);
+        MimeMultipart signedMultipart = createSignedMultipart(permissionsCA, mimeBodyPart);
+        provisioningMetrics.stop(signing, endpoint, SIGNING);
+
+        Timer.Sample mimeSerialization = provisioningMetrics.start();
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setContent(signedMultipart);
 
-        return HttpResponse.notFound();
+        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
+            message.writeTo(byteArrayOutputStream);
+            String signedPermissions = byteArrayOutputStream.toString();
+            provisioningMetrics.stop(mimeSerialization, endpoint, MIME_SERIALIZATION);
+            return signedPermissions;
+        }
     }
 
     public HttpResponse<?> getPermissionJson(String requestEtag) throws NoSuchAlgorithmException {
-        Optional<Application> applicationOptional = securityUtil.getCurrentlyAuthenticatedApplication();
+        Long applicationId = securityUtil.getCurrentlyAuthenticatedApplicationId();
+        Optional<Long> generation = applicationRepository.findPermissionsGenerationById(applicationId);
+        if (generation.isEmpty()) {
+            return provisioningMetrics.response(PERMISSIONS_JSON, HttpResponse.notFound());
+        }
+        String etag = generatePermissionsJsonEtag(applicationId, generation.get());
+        if (ETags.matches(requestEtag, etag)) {
+            return provisioningMetrics.response(PERMISSIONS_JSON, HttpResponse.notModified());
+        }
+
+        Optional<Application> applicationOptional = applicationRepository.findById(applicationId);
 
         if (applicationOptional.isPresent()) {
-            HashMap applicationPermissions = buildApplicationPermissionsJson(applicationOptional.get());
-            String etag = generateMD5Hash(applicationPermissions.toString());
-            if (requestEtag != null && requestEtag.contentEquals(etag)) {
-                return HttpResponse.notModified();
-            }
+            Application application = applicationOptional.get();
+            HashMap applicationPermissions = buildApplicationPermissionsJson(application);
 
-            return HttpResponse.ok(applicationPermissions).header(E_TAG_HEADER_NAME, etag);
+            return provisioningMetrics.response(PERMISSIONS_JSON, HttpResponse.ok(applicationPermissions).header(E_TAG_HEADER_NAME, etag));
         }
 
-        return HttpResponse.notFound();
+        return provisioningMetrics.response(PERMISSIONS_JSON, HttpResponse.notFound());
+    }
+
+    // ETags are derived from the stored permission generation rather than the rendered output,
+    // so revalidating costs one primary key lookup.
+    private String generatePermissionsJsonEtag(Long applicationId, long generation) throws NoSuchAlgorithmException {
+        return generateMD5Hash("json:" + applicationId + ":" + generation);
+    }
+
+    private String generatePermissionsFileEtag(Long applicationId, long generation, String nonce) throws NoSuchAlgorithmException {
+        // The signed file also changes with the nonce and the permissions CA, and must be reissued well
+        // before the validity window of a copy the client already holds runs out. Renaming an application
+        // bumps its generation, and its group cannot change.
+        SecretsSnapshot secrets = applicationSecretsClient.getSnapshot();
+        long renewalPeriod = Math.max(1, TimeUnit.DAYS.toMillis(permissionExpiry) / 2);
+        long renewalBucket = renewalBucket(applicationId, System.currentTimeMillis(), renewalPeriod);
+        return generateMD5Hash("p7s:" + applicationId + ":" + generation + ":" + nonce + ":" +
+                secrets.getETag(PERMISSIONS_CA_CERT) + ":" + secrets.getETag(PERMISSIONS_CA_KEY) + ":" + renewalBucket);
+    }
+
+    // Each application rolls over at its own offset into the period, so the fleet's signed files are not
+    // all reissued at the same instant. The id is scrambled first, since consecutive ids would be milliseconds apart.
+    public static long renewalBucket(Long applicationId, long now, long renewalPeriod) {
+        long offset = Math.floorMod(applicationId * 0x9E3779B97F4A7C15L, renewalPeriod);
+        return (now + offset) / renewalPeriod;
     }
 
     private String generateMD5Hash(String str) throws NoSuchAlgorithmException {
@@ -538,57 +644,51 @@ public class ApplicationService {
         return DatatypeConverter.printHexBinary(digest).toUpperCase();
     }
 
-    public static MimeMultipart createSignedMultipart(
-            PrivateKey signingKey, X509Certificate signingCert, MimeBodyPart message)
-            throws GeneralSecurityException, OperatorCreationException, SMIMEException {
-        List<X509Certificate> certList = new ArrayList<X509Certificate>();
-        certList.add(signingCert);
-        Store certs = new JcaCertStore(certList);
-        ASN1EncodableVector signedAttrs = generateSignedAttributes();
-        signedAttrs.add(new Attribute(CMSAttributes.signingTime, new DERSet(new Time(new Date()))));
+    public static MimeMultipart createSignedMultipart(CertificateAuthority signingCA, MimeBodyPart message)
+            throws OperatorCreationException, SMIMEException {
         SMIMESignedGenerator gen = new SMIMESignedGenerator();
-        gen.addSignerInfoGenerator(new JcaSimpleSignerInfoGeneratorBuilder()
-                .setSignedAttributeGenerator(new AttributeTable(signedAttrs))
-                .build("SHA1WITHECDSA", signingKey, signingCert));
-        gen.addCertificates(certs);
+        gen.addSignerInfoGenerator(new SignerInfoGeneratorBuilder(signingCA.getDigestCalculatorProvider())
+                .setSignedAttributeGenerator(SIGNED_ATTRIBUTES)
+                .build(signingCA.newContentSigner(), signingCA.getCertificateHolder()));
+        gen.addCertificates(signingCA.getCertStore());
         return gen.generate(message);
     }
 
-    private static ASN1EncodableVector generateSignedAttributes() {
+    private static AttributeTable generateSignedAttributes() {
         ASN1EncodableVector signedAttrs = new ASN1EncodableVector();
         SMIMECapabilityVector caps = new SMIMECapabilityVector();
         caps.addCapability(SMIMECapability.aES128_CBC);
         caps.addCapability(SMIMECapability.aES192_CBC);
         caps.addCapability(SMIMECapability.aES256_CBC);
         signedAttrs.add(new SMIMECapabilitiesAttribute(caps));
-        return signedAttrs;
-    }
-
-    private String generatePermissionsXml(Application application, String nonce) throws IOException {
-        Map<String, Object> dataModel = buildTemplateDataModel(nonce, application);
-
-        return templateService.mergeDataAndTemplate(dataModel);
-    }
+        return new AttributeTable(signedAttrs);
+    }
+
+    // The generation must come from the row, not from a possibly stale second-level cached Application.
+    String generatePermissionsXml(Application application, long generation, String nonce, String endpoint) throws IOException {
+        PermissionsDocument document = permissionsDocumentCache.get(application.getId(), generation);
+        provisioningMetrics.cacheLookup(endpoint, PERMISSIONS_DOCUMENT_CACHE, document != null);
+        Timer.Sample templating;
+        if (document == null) {
+            PermissionsGrant grant = buildPermissionsGrant(application, endpoint);
+            templating = provisioningMetrics.start();
+            document = PermissionsDocument.fromRenderedTemplate(templateService.renderPermissions(grant));
+            permissionsDocumentCache.put(application.getId(), generation, document);
+        } else {
+            templating = provisioningMetrics.start();
+        }
 
-    private Map<String, Object> buildTemplateDataModel(String nonce, Application application) {
         HashMap<String, String> oidMap = new HashMap<>();
         oidMap.put("2.5.4.4", "SN");
         oidMap.put("2.5.4.42", "GN");
 
-        HashMap<String, Object> dataModel = new HashMap<>();
         final String sn = (new X500Principal(buildSubject(application, nonce))).getName(X500Principal.RFC2253, oidMap);
-        dataModel.put("subject", xmlEscaper.escape(sn));
-        dataModel.put("applicationId", application.getId());
-
         final String validStart = ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT);
         final String validEnd = ZonedDateTime.now(ZoneOffset.UTC).plusDays(permissionExpiry).format(DateTimeFormatter.ISO_INSTANT);
-        dataModel.put("validStart", validStart);
-        dataModel.put("validEnd", validEnd);
-        dataModel.put("domain", permissionDomain);
-
-        dataModel.putAll(buildApplicationPermissions(application));
 
-        return dataModel;
+        String permissionsXml = document.render(xmlEscaper.escape(sn), validStart, validEnd);
+        provisioningMetrics.stop(templating, endpoint, TEMPLATING);
+        return permissionsXml;
     }
 
     public static class PubSubEntry {
@@ -623,11 +723,13 @@ public class ApplicationService {
         }
     }
 
-    private HashMap buildApplicationPermissions(Application application) {
-        HashMap<String, Object> dataModel = new HashMap<>();
+    private PermissionsGrant buildPermissionsGrant(Application application, String endpoint) {
+        Timer.Sample dbFetch = provisioningMetrics.start();
         List<ApplicationPermission> readApplicationPermissions = applicationPermissionService.findAllByApplicationAndReadEqualsTrue(application);
         List<ApplicationPermission> writeApplicationPermissions = applicationPermissionService.findAllByApplicationAndWriteEqualsTrue(application);
+        provisioningMetrics.stop(dbFetch, endpoint, DB_FETCH);
 
+        Timer.Sample grouping = provisioningMetrics.start();
         // list of canonical names for each publish-subscribe sections
         List<PubSubEntry> publishList = new ArrayList<>();
         List<PubSubEntry> subscribeList = new ArrayList<>();
@@ -637,14 +739,14 @@ public class ApplicationService {
 
         // write
         buildPubSubList(publishList, writeApplicationPermissions, true);
+        provisioningMetrics.stop(grouping, endpoint, GROUPING);
 
-        dataModel.put("subscribes", subscribeList);
-        dataModel.put("publishes", publishList);
-
-        return dataModel;
+        return new PermissionsGrant(application.getId(), PermissionsDocument.SUBJECT_PLACEHOLDER,
+                PermissionsDocument.VALID_START_PLACEHOLDER, PermissionsDocument.VALID_END_PLACEHOLDER, permissionDomain,
+                publishList, subscribeList);
     }
 
-    private void buildPubSubList(List<PubSubEntry> list, List<ApplicationPermission> applicationPermissions, boolean publishing) {
+    void buildPubSubList(List<PubSubEntry> list, List<ApplicationPermission> applicationPermissions, boolean publishing) {
         if (applicationPermissions == null) {
             return;
         }
@@ -684,14 +786,18 @@ public class ApplicationService {
 
     private HashMap buildApplicationPermissionsJson(Application application) {
         HashMap<String, Object> dataModel = new HashMap<>();
+        Timer.Sample dbFetch = provisioningMetrics.start();
         List<ApplicationPermission> readApplicationPermissions = applicationPermissionService.findAllByApplicationAndReadEqualsTrue(application);
         List<ApplicationPermission> writeApplicationPermissions = applicationPermissionService.findAllByApplicationAndWriteEqualsTrue(application);
+        provisioningMetrics.stop(dbFetch, PERMISSIONS_JSON, DB_FETCH);
 
+        Timer.Sample grouping = provisioningMetrics.start();
         List<Object> publishPartitions = new ArrayList<>();
         List<Object> subscribePartitions = new ArrayList<>();
 
         buildTopicPartitionsMap(publishPartitions, writeApplicationPermissions, true);
         buildTopicPartitionsMap(subscribePartitions, readApplicationPermissions, false);
+        provisioningMetrics.stop(grouping, PERMISSIONS_JSON, GROUPING);
 
         dataModel.put("publishes", publishPartitions);
         dataModel.put("subscribes", subscribePartitions);
@@ -731,11 +837,11 @@ public class ApplicationService {
     }
 
     public X509Certificate makeV3Certificate(
-            X509Certificate caCertificate, PrivateKey caPrivateKey, PublicKey eePublicKey, Application application, String nonce)
+            CertificateAuthority identityCA, PublicKey eePublicKey, Application application, String nonce)
             throws GeneralSecurityException, CertIOException, OperatorCreationException {
 
         X509v3CertificateBuilder v3CertBldr = new JcaX509v3CertificateBuilder(
-                caCertificate.getSubjectX500Principal(), // issuer
+                identityCA.getCertificate().getSubjectX500Principal(), // issuer
                 BigInteger.valueOf(System.currentTimeMillis()) // serial number
                         .multiply(BigInteger.valueOf(10)),
                 new Date(System.currentTimeMillis() - 1000L * 5), // start time
@@ -752,14 +858,13 @@ public class ApplicationService {
         v3CertBldr.addExtension(
                 Extension.authorityKeyIdentifier,
                 false,
-                extUtils.createAuthorityKeyIdentifier(caCertificate));
+                identityCA.getAuthorityKeyIdentifier());
         v3CertBldr.addExtension(
                 Extension.basicConstraints,
                 true,
                 new BasicConstraints(false));
-        JcaContentSignerBuilder signerBuilder = new JcaContentSignerBuilder("SHA256WITHECDSA");
 
-        return new JcaX509CertificateConverter().getCertificate(v3CertBldr.build(signerBuilder.build(caPrivateKey)));
+        return new JcaX509CertificateConverter().getCertificate(v3CertBldr.build(identityCA.newContentSigner()));
     }
 
     private String buildSubject(Application application, String nonce) {
@@ -786,18 +891,6 @@ public class ApplicationService {
         return sWrt.toString();
     }
 
-    public X509Certificate readCertificate(String pemEncoding) throws IOException, CertificateException {
-        PEMParser parser = new PEMParser(new StringReader(pemEncoding));
-        X509CertificateHolder certHolder = (X509CertificateHolder) parser.readObject();
-        return new JcaX509CertificateConverter().getCertificate(certHolder);
-    }
-
-    public PrivateKey readPrivateKey(String pemEncoding) throws IOException {
-        PEMParser parser = new PEMParser(new StringReader(pemEncoding));
-        PEMKeyPair pemKeyPair = (PEMKeyPair) parser.readObject();
-        return new JcaPEMKeyConverter().getPrivateKey(pemKeyPair.getPrivateKeyInfo());
-    }
-
     public HttpResponse generateGrantToken(Long applicationId) {
         Optional<Application> applicationOptional = applicationRepository.findById(applicationId);
         if (applicationOptional.isEmpty()) {
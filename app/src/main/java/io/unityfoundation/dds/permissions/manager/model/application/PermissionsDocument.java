@@ -0,0 +1,63 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+/**
+ * A rendered permissions document with the per-request values (subject and validity window) cut out,
+ * so the same grant body can be reused for every nonce until the application's permissions change.
+ */
+public final class PermissionsDocument {
+
+    public static final String SUBJECT_PLACEHOLDER = "@@subject@@";
+    public static final String VALID_START_PLACEHOLDER = "@@validStart@@";
+    public static final String VALID_END_PLACEHOLDER = "@@validEnd@@";
+
+    private final String beforeSubject;
+    private final String beforeValidStart;
+    private final String beforeValidEnd;
+    private final String rest;
+
+    private PermissionsDocument(String beforeSubject, String beforeValidStart, String beforeValidEnd, String rest) {
+        this.beforeSubject = beforeSubject;
+        this.beforeValidStart = beforeValidStart;
+        this.beforeValidEnd = beforeValidEnd;
+        this.rest = rest;
+    }
+
+    // The placeholders are located by their first occurrence, and they all precede the topics and
+    // partitions, so user-supplied names can never be mistaken for them.
+    public static PermissionsDocument fromRenderedTemplate(String rendered) {
+        int subject = indexOf(rendered, SUBJECT_PLACEHOLDER, 0);
+        int validStart = indexOf(rendered, VALID_START_PLACEHOLDER, subject + SUBJECT_PLACEHOLDER.length());
+        int validEnd = indexOf(rendered, VALID_END_PLACEHOLDER, validStart + VALID_START_PLACEHOLDER.length());
+
+        return new PermissionsDocument(
+                rendered.substring(0, subject),
+                rendered.substring(subject + SUBJECT_PLACEHOLDER.length(), validStart),
+                rendered.substring(validStart + VALID_START_PLACEHOLDER.length(), validEnd),
+                rendered.substring(validEnd + VALID_END_PLACEHOLDER.length()));
+    }
+
+    private static int indexOf(String rendered, String placeholder, int from) {
+        int index = rendered.indexOf(placeholder, from);
+        if (index < 0) {
+            throw new IllegalStateException("Permissions template did not render " + placeholder);
+        }
+        return index;
+    }
+
+    public String render(String subject, String validStart, String validEnd) {
+        return beforeSubject + subject + beforeValidStart + validStart + beforeValidEnd + validEnd + rest;
+    }
+}
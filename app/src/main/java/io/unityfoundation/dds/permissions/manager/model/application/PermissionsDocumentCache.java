@@ -0,0 +1,62 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.micronaut.context.annotation.Property;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Rendered grant bodies keyed by application id and permission generation. An entry for an
+// older generation is simply never matched again and is overwritten on the next render.
+@Singleton
+public class PermissionsDocumentCache {
+
+    @Property(name = "permissions-manager.application.permissions-file.cache-size", defaultValue = "1000")
+    protected int maxSize;
+
+    private final Map<Long, Entry> documents = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public synchronized PermissionsDocument get(Long applicationId, long generation) {
+        Entry entry = documents.get(applicationId);
+        if (entry != null && entry.generation == generation) {
+            return entry.document;
+        }
+        return null;
+    }
+
+    public synchronized void put(Long applicationId, long generation, PermissionsDocument document) {
+        Entry entry = documents.get(applicationId);
+        // never let a slow render of an older generation replace a newer one
+        if (entry == null || entry.generation <= generation) {
+            documents.put(applicationId, new Entry(generation, document));
+        }
+    }
+
+    private static class Entry {
+        private final long generation;
+        private final PermissionsDocument document;
+
+        private Entry(long generation, PermissionsDocument document) {
+            this.generation = generation;
+            this.document = document;
+        }
+    }
+}
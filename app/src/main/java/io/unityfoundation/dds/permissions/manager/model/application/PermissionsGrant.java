@@ -0,0 +1,86 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationService.PubSubEntry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values of one application's permissions document, already escaped. {@link PermissionsXmlWriter}
+ * reads them directly; views/permissions.ftlx gets them through {@link #toDataModel()}.
+ */
+public class PermissionsGrant {
+
+    private final Long applicationId;
+    private final String subject;
+    private final String validStart;
+    private final String validEnd;
+    private final Long domain;
+    private final List<PubSubEntry> publishes;
+    private final List<PubSubEntry> subscribes;
+
+    public PermissionsGrant(Long applicationId, String subject, String validStart, String validEnd, Long domain,
+                            List<PubSubEntry> publishes, List<PubSubEntry> subscribes) {
+        this.applicationId = applicationId;
+        this.subject = subject;
+        this.validStart = validStart;
+        this.validEnd = validEnd;
+        this.domain = domain;
+        this.publishes = publishes;
+        this.subscribes = subscribes;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getValidStart() {
+        return validStart;
+    }
+
+    public String getValidEnd() {
+        return validEnd;
+    }
+
+    public Long getDomain() {
+        return domain;
+    }
+
+    public List<PubSubEntry> getPublishes() {
+        return publishes;
+    }
+
+    public List<PubSubEntry> getSubscribes() {
+        return subscribes;
+    }
+
+    public Map<String, Object> toDataModel() {
+        HashMap<String, Object> dataModel = new HashMap<>();
+        dataModel.put("applicationId", applicationId);
+        dataModel.put("subject", subject);
+        dataModel.put("validStart", validStart);
+        dataModel.put("validEnd", validEnd);
+        dataModel.put("domain", domain);
+        dataModel.put("publishes", publishes);
+        dataModel.put("subscribes", subscribes);
+        return dataModel;
+    }
+}
@@ -0,0 +1,74 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationService.PubSubEntry;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the DDS Security permissions document directly, without going through FreeMarker.
+ * Must produce exactly the same output as views/permissions.ftlx for the same grant;
+ * PermissionsXmlWriterTest holds both to the same golden files. Values are expected to be escaped already.
+ */
+@Singleton
+public class PermissionsXmlWriter {
+
+    public void write(PermissionsGrant grant, Appendable out) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+                .append("<dds xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"http://www.omg.org/spec/DDS-SECURITY/20160303/omg_shared_ca_permissions.xsd\">\n")
+                .append("    <permissions>\n")
+                .append("        <grant name=\"application_").append(String.valueOf(grant.getApplicationId())).append("\">\n")
+                .append("            <subject_name>").append(grant.getSubject()).append("</subject_name>\n")
+                .append("            <validity>\n")
+                .append("                <not_before>").append(grant.getValidStart()).append("</not_before>\n")
+                .append("                <not_after>").append(grant.getValidEnd()).append("</not_after>\n")
+                .append("            </validity>\n")
+                .append("            <allow_rule>\n")
+                .append("                <domains>\n")
+                .append("                    <id>").append(String.valueOf(grant.getDomain())).append("</id>\n")
+                .append("                </domains>\n");
+
+        writeEntries(out, "publish", grant.getPublishes());
+        writeEntries(out, "subscribe", grant.getSubscribes());
+
+        out.append("            </allow_rule>\n")
+                .append("            <default>DENY</default>\n")
+                .append("        </grant>\n")
+                .append("    </permissions>\n")
+                .append("</dds>\n");
+    }
+
+    private void writeEntries(Appendable out, String element, List<PubSubEntry> entries) throws IOException {
+        for (PubSubEntry entry : entries) {
+            out.append("                <").append(element).append(">\n")
+                    .append("                    <topics>\n");
+            for (String canonicalName : entry.getTopics()) {
+                out.append("                        <topic>").append(canonicalName).append("</topic>\n");
+            }
+            out.append("                    </topics>\n");
+
+            if (!entry.getPartitions().isEmpty()) {
+                out.append("                    <partitions>\n");
+                for (String partitionName : entry.getPartitions()) {
+                    out.append("                        <partition>").append(partitionName).append("</partition>\n");
+                }
+                out.append("                    </partitions>\n");
+            }
+            out.append("                </").append(element).append(">\n");
+        }
+    }
+}
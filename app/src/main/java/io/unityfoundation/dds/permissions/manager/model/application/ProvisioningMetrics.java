@@ -0,0 +1,88 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.http.HttpResponse;
+import jakarta.inject.Singleton;
+
+/**
+ * Stage timers, cache lookups and response statuses of the credential endpoints, all tagged by
+ * endpoint and published through the management /metrics endpoint. The share of 304 responses
+ * is {@code dpm.provisioning.responses{status=304}} over all responses of the same endpoint.
+ */
+@Singleton
+public class ProvisioningMetrics {
+
+    public static final String STAGE_TIMER = "dpm.provisioning.stage";
+    public static final String CACHE_COUNTER = "dpm.provisioning.cache";
+    public static final String RESPONSE_COUNTER = "dpm.provisioning.responses";
+
+    public static final String PERMISSIONS_FILE = "permissions-file";
+    public static final String PERMISSIONS_JSON = "permissions-json";
+    public static final String KEY_PAIR = "key-pair";
+    public static final String PROVISION = "provision";
+    public static final String IDENTITY_CA = "identity-ca";
+    public static final String PERMISSIONS_CA = "permissions-ca";
+    public static final String GOVERNANCE = "governance";
+
+    public static final String DB_FETCH = "db-fetch";
+    public static final String GROUPING = "grouping";
+    public static final String TEMPLATING = "templating";
+    public static final String SIGNING = "signing";
+    public static final String MIME_SERIALIZATION = "mime-serialization";
+    public static final String KEYGEN = "keygen";
+    public static final String CERT_BUILD = "cert-build";
+    public static final String PEM_ENCODE = "pem-encode";
+
+    public static final String PERMISSIONS_DOCUMENT_CACHE = "permissions-document";
+
+    private final MeterRegistry meterRegistry;
+
+    public ProvisioningMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String endpoint, String stage) {
+        sample.stop(Timer.builder(STAGE_TIMER)
+                .tag("endpoint", endpoint)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    public void cacheLookup(String endpoint, String cache, boolean hit) {
+        Counter.builder(CACHE_COUNTER)
+                .tag("endpoint", endpoint)
+                .tag("cache", cache)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public <R extends HttpResponse<?>> R response(String endpoint, R response) {
+        Counter.builder(RESPONSE_COUNTER)
+                .tag("endpoint", endpoint)
+                .tag("status", String.valueOf(response.getStatus().getCode()))
+                .register(meterRegistry)
+                .increment();
+        return response;
+    }
+}
@@ -0,0 +1,72 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.application;
+
+import io.micronaut.core.annotation.Introspected;
+
+import java.util.List;
+
+@Introspected
+public class ProvisioningRequestDTO {
+
+    private List<Entry> applications;
+    private boolean includeKeyPair;
+
+    public List<Entry> getApplications() {
+        return applications;
+    }
+
+    public void setApplications(List<Entry> applications) {
+        this.applications = applications;
+    }
+
+    public boolean isIncludeKeyPair() {
+        return includeKeyPair;
+    }
+
+    public void setIncludeKeyPair(boolean includeKeyPair) {
+        this.includeKeyPair = includeKeyPair;
+    }
+
+    @Introspected
+    public static class Entry {
+
+        private Long application;
+        private String nonce;
+
+        public Entry() {
+        }
+
+        public Entry(Long application, String nonce) {
+            this.application = application;
+            this.nonce = nonce;
+        }
+
+        public Long getApplication() {
+            return application;
+        }
+
+        public void setApplication(Long application) {
+            this.application = application;
+        }
+
+        public String getNonce() {
+            return nonce;
+        }
+
+        public void setNonce(String nonce) {
+            this.nonce = nonce;
+        }
+    }
+}
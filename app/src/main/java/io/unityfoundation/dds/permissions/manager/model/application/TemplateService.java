@@ -13,6 +13,7 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.application;
 
+import io.micronaut.context.annotation.Property;
 import io.micronaut.core.io.Writable;
 import io.micronaut.views.ViewsRenderer;
 import jakarta.inject.Singleton;
@@ -24,10 +25,28 @@ import java.util.Map;
 @Singleton
 public class TemplateService {
 
+    public static final String FREEMARKER_RENDERER = "freemarker";
+    public static final String DIRECT_RENDERER = "direct";
+
+    @Property(name = "permissions-manager.application.permissions-file.renderer", defaultValue = FREEMARKER_RENDERER)
+    protected String renderer;
+
     private final ViewsRenderer viewsRenderer;
+    private final PermissionsXmlWriter permissionsXmlWriter;
 
-    public TemplateService(ViewsRenderer viewsRenderer) {
+    public TemplateService(ViewsRenderer viewsRenderer, PermissionsXmlWriter permissionsXmlWriter) {
         this.viewsRenderer = viewsRenderer;
+        this.permissionsXmlWriter = permissionsXmlWriter;
+    }
+
+    public String renderPermissions(PermissionsGrant grant) throws IOException {
+        if (DIRECT_RENDERER.equals(renderer)) {
+            StringBuilder out = new StringBuilder();
+            permissionsXmlWriter.write(grant, out);
+            return out.toString();
+        }
+
+        return mergeDataAndTemplate(grant.toDataModel());
     }
 
     public String mergeDataAndTemplate(Map<String, Object> dataModel) throws IOException {
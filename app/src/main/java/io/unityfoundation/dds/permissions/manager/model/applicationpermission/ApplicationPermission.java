@@ -33,22 +33,22 @@ public class ApplicationPermission {
     private Long id;
 
     @NonNull
-    @ManyToOne(optional = false, fetch = FetchType.EAGER)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Application permissionsApplication;
 
     @NonNull
-    @ManyToOne(optional = false, fetch = FetchType.EAGER)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Topic permissionsTopic;
 
     private boolean permissionRead = false;
 
     private boolean permissionWrite = false;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true, mappedBy = "rApplicationPermission")
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true, mappedBy = "rApplicationPermission")
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Set<ReadPartition> readPartitions = new HashSet<>();
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true, mappedBy = "wApplicationPermission")
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true, mappedBy = "wApplicationPermission")
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Set<WritePartition> writePartitions = new HashSet<>();
 
@@ -13,6 +13,10 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.applicationpermission;
 
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
@@ -20,28 +24,97 @@ import io.micronaut.data.repository.PageableRepository;
 import io.unityfoundation.dds.permissions.manager.model.application.Application;
 import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
 
+import javax.validation.constraints.NotNull;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ApplicationPermissionRepository extends PageableRepository<ApplicationPermission, Long> {
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
+    Optional<ApplicationPermission> findById(@NotNull @NonNull Long id);
+
     boolean existsByPermissionsApplicationAndPermissionsTopic(Application permissionsApplication, Topic permissionsTopic);
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
     Page<ApplicationPermission> findByPermissionsApplicationId(Long applicationId, Pageable pageable);
     List<ApplicationPermission> findByPermissionsApplication(Application permissionsApplication);
-    List<ApplicationPermission> findByPermissionsApplicationAndPermissionReadTrue(Application permissionsApplication);
-    List<ApplicationPermission> findByPermissionsApplicationAndPermissionWriteTrue(Application permissionsApplication);
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
     Page<ApplicationPermission> findByPermissionsTopicId(Long topicId, Pageable pageable);
     Page<ApplicationPermission> findByPermissionsApplicationIdAndPermissionsTopicId(Long applicationId, Long topicId, Pageable pageable);
     Page<ApplicationPermission> findByPermissionsApplicationIdInOrPermissionsTopicIdIn(Collection<Long> permissionsTopic_id, Collection<Long> permissionsApplication_id, Pageable pageable);
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
     Page<ApplicationPermission> findByPermissionsApplicationIdAndPermissionsApplicationIdIn(Long applicationId, List<Long> groupsApplications, Pageable pageable);
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
     Page<ApplicationPermission> findByPermissionsTopicIdAndPermissionsTopicIdIn(Long topicId, List<Long> groupsTopics, Pageable pageable);
     Page<ApplicationPermission> findByPermissionsApplicationIdAndPermissionsTopicIdAndPermissionsApplicationIdInAndPermissionsTopicIdIn(Long applicationId, Long topicId, List<Long> groupsApplications, List<Long> groupsTopics, Pageable pageable);
     Page<ApplicationPermission> findByPermissionsApplicationMakePublicTrueAndPermissionsTopicMakePublicTrue(Pageable pageable);
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
     Page<ApplicationPermission> findByPermissionsApplicationMakePublicTrueAndPermissionsTopicMakePublicTrueAndPermissionsApplicationId(Long applicationId, Pageable pageable);
+
+    @Join("permissionsTopic")
+    @Join("permissionsTopic.permissionsGroup")
+    @Join("permissionsApplication")
+    @Join("permissionsApplication.permissionsGroup")
     Page<ApplicationPermission> findByPermissionsApplicationMakePublicTrueAndPermissionsTopicMakePublicTrueAndPermissionsTopicId(Long topicId, Pageable pageable);
     Page<ApplicationPermission> findByPermissionsApplicationMakePublicTrueAndPermissionsTopicMakePublicTrueAndPermissionsApplicationIdAndPermissionsTopicId(Long applicationId, Long topicId, Pageable pageable);
+
+    // Keyset pages of one topic's or application's grants, continuing after the last (name of the other side, id) returned.
+    String SELECT_WITH_GROUPS = "SELECT ap FROM ApplicationPermission ap JOIN FETCH ap.permissionsTopic t JOIN FETCH t.permissionsGroup " +
+            "JOIN FETCH ap.permissionsApplication a JOIN FETCH a.permissionsGroup";
+    String PUBLIC_ONLY = "(:publicOnly = false OR (a.makePublic = true AND t.makePublic = true))";
+
+    @Query(SELECT_WITH_GROUPS + " WHERE t.id = :topicId AND " + PUBLIC_ONLY +
+            " AND (a.name > :afterName OR (a.name = :afterName AND ap.id > :afterId)) ORDER BY a.name, ap.id")
+    List<ApplicationPermission> findByTopicIdAfter(Long topicId, boolean publicOnly, String afterName, Long afterId, Pageable pageable);
+
+    @Query(SELECT_WITH_GROUPS + " WHERE a.id = :applicationId AND " + PUBLIC_ONLY +
+            " AND (t.name > :afterName OR (t.name = :afterName AND ap.id > :afterId)) ORDER BY t.name, ap.id")
+    List<ApplicationPermission> findByApplicationIdAfter(Long applicationId, boolean publicOnly, String afterName, Long afterId, Pageable pageable);
+
+    // Partitions of a page of permissions, in one statement rather than two per permission.
+    @Join(value = "readPartitions", type = Join.Type.LEFT_FETCH)
+    @Join(value = "writePartitions", type = Join.Type.LEFT_FETCH)
+    List<ApplicationPermission> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT DISTINCT ap FROM ApplicationPermission ap JOIN FETCH ap.permissionsTopic t JOIN FETCH t.permissionsGroup " +
+            "LEFT JOIN FETCH ap.readPartitions WHERE ap.permissionsApplication = :permissionsApplication AND ap.permissionRead = true")
+    List<ApplicationPermission> findByPermissionsApplicationAndPermissionReadTrue(Application permissionsApplication);
+
+    @Query("SELECT DISTINCT ap FROM ApplicationPermission ap JOIN FETCH ap.permissionsTopic t JOIN FETCH t.permissionsGroup " +
+            "LEFT JOIN FETCH ap.writePartitions WHERE ap.permissionsApplication = :permissionsApplication AND ap.permissionWrite = true")
+    List<ApplicationPermission> findByPermissionsApplicationAndPermissionWriteTrue(Application permissionsApplication);
+
+    void update(@Id Long id, boolean permissionRead, boolean permissionWrite);
+
     void deleteByPermissionsTopicEquals(Topic permissionsTopic);
     void deleteByPermissionsApplicationEquals(Application permissionsApplication);
     void deleteByPermissionsApplicationIdIn(Collection<Long> permissionsApplications);
     void deleteByPermissionsTopicIdIn(Collection<Long> permissionsTopics);
+
+    @Query("SELECT DISTINCT ap.permissionsApplication.id FROM ApplicationPermission ap WHERE ap.permissionsTopic.id IN (:topicIds)")
+    List<Long> findPermissionsApplicationIdByPermissionsTopicIdIn(Collection<Long> topicIds);
 }
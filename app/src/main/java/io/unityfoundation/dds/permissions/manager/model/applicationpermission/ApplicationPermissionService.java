@@ -25,6 +25,8 @@ import io.micronaut.security.token.jwt.generator.claims.JwtClaimsSetAdapter;
 import io.micronaut.security.token.jwt.validator.JwtTokenValidator;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.model.CursorPage;
+import io.unityfoundation.dds.permissions.manager.model.KeysetCursor;
 import io.unityfoundation.dds.permissions.manager.model.application.Application;
 import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
@@ -37,6 +39,8 @@ import org.reactivestreams.Publisher;
 
 import java.text.ParseException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -99,8 +103,58 @@ public class ApplicationPermissionService {
         return getAccessPermissionDTOPage(page, publicMode);
     }
 
-    private static Page<AccessPermissionDTO> getAccessPermissionDTOPage(Page<ApplicationPermission> page, boolean publicMode) {
-        return page.map(applicationPermission -> new AccessPermissionDTO(
+    // Keyset mode: ordered by the application's name (for a topic) or the topic's name (for an application) and id, no count.
+    public CursorPage<AccessPermissionDTO> indexByTopicIdAfter(Long topicId, String cursor, int size) {
+        return indexAfter(true, topicId, cursor, size);
+    }
+
+    public CursorPage<AccessPermissionDTO> indexByApplicationIdAfter(Long applicationId, String cursor, int size) {
+        return indexAfter(false, applicationId, cursor, size);
+    }
+
+    private CursorPage<AccessPermissionDTO> indexAfter(boolean isTopic, Long entityId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        boolean publicMode = determinePublicMode(isTopic, entityId);
+        if (!publicMode && !isInCurrentUsersGroups(isTopic, entityId)) {
+            return CursorPage.empty(size);
+        }
+
+        List<ApplicationPermission> rows = isTopic ?
+                applicationPermissionRepository.findByTopicIdAfter(entityId, publicMode, after.getKey(), after.getId(), CursorPage.fetch(size)) :
+                applicationPermissionRepository.findByApplicationIdAfter(entityId, publicMode, after.getKey(), after.getId(), CursorPage.fetch(size));
+        CursorPage<ApplicationPermission> page = CursorPage.of(rows, size,
+                applicationPermission -> isTopic ? applicationPermission.getPermissionsApplication().getName() : applicationPermission.getPermissionsTopic().getName(),
+                ApplicationPermission::getId);
+
+        return page.map(toAccessPermissionDTO(page.getContent(), publicMode));
+    }
+
+    private boolean isInCurrentUsersGroups(boolean isTopic, Long entityId) {
+        if (securityUtil.isCurrentUserAdmin()) {
+            return true;
+        }
+
+        User user = securityUtil.getCurrentlyAuthenticatedUser().get();
+        List<Long> groups = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
+        Optional<Long> groupId = isTopic ?
+                topicRepository.findById(entityId).map(topic -> topic.getPermissionsGroup().getId()) :
+                applicationRepository.findById(entityId).map(application -> application.getPermissionsGroup().getId());
+
+        return groupId.map(groups::contains).orElse(false);
+    }
+
+    private Page<AccessPermissionDTO> getAccessPermissionDTOPage(Page<ApplicationPermission> page, boolean publicMode) {
+        return page.map(toAccessPermissionDTO(page.getContent(), publicMode));
+    }
+
+    // The page query fetches topics, applications and their groups; partitions follow in one more statement.
+    private Function<ApplicationPermission, AccessPermissionDTO> toAccessPermissionDTO(List<ApplicationPermission> content, boolean publicMode) {
+        Map<Long, ApplicationPermission> withPartitions = publicMode || content.isEmpty() ? Map.of() :
+                applicationPermissionRepository.findByIdIn(content.stream().map(ApplicationPermission::getId).collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.toMap(ApplicationPermission::getId, Function.identity(), (first, duplicate) -> first));
+
+        return applicationPermission -> new AccessPermissionDTO(
                 applicationPermission.getId(),
                 applicationPermission.getPermissionsTopic().getId(),
                 applicationPermission.getPermissionsTopic().getName(),
@@ -111,9 +165,9 @@ public class ApplicationPermissionService {
                 applicationPermission.getPermissionsApplication().getPermissionsGroup().getName(),
                 applicationPermission.isPermissionRead(),
                 applicationPermission.isPermissionWrite(),
-                publicMode? Set.of() : applicationPermission.getReadPartitions().stream().map(ReadPartition::getPartitionName).collect(Collectors.toSet()),
-                publicMode? Set.of() : applicationPermission.getWritePartitions().stream().map(WritePartition::getPartitionName).collect(Collectors.toSet())
-        ));
+                publicMode? Set.of() : withPartitions.get(applicationPermission.getId()).getReadPartitions().stream().map(ReadPartition::getPartitionName).collect(Collectors.toSet()),
+                publicMode? Set.of() : withPartitions.get(applicationPermission.getId()).getWritePartitions().stream().map(WritePartition::getPartitionName).collect(Collectors.toSet())
+        );
     }
 
     private boolean determinePublicMode(boolean isTopic, Long entityId) {
@@ -232,10 +286,17 @@ public class ApplicationPermissionService {
         );
         addPartitionsToPermission(accessPermissionBodyDTO, applicationPermission);
 
-        return applicationPermissionRepository.update(applicationPermission);
+        permissionsChanged(List.of(application.getId()));
+        return applicationPermission;
     }
 
     public AccessPermissionDTO createDTO(ApplicationPermission applicationPermission) {
+        return createDTO(applicationPermission,
+                applicationPermission.getReadPartitions().stream().map(ReadPartition::getPartitionName).collect(Collectors.toSet()),
+                applicationPermission.getWritePartitions().stream().map(WritePartition::getPartitionName).collect(Collectors.toSet()));
+    }
+
+    private AccessPermissionDTO createDTO(ApplicationPermission applicationPermission, Set<String> readPartitions, Set<String> writePartitions) {
         Long topicId = applicationPermission.getPermissionsTopic().getId();
         String topicName = applicationPermission.getPermissionsTopic().getName();
         String topicCanonicalName = applicationPermission.getPermissionsTopic().deriveCanonicalName();
@@ -245,8 +306,6 @@ public class ApplicationPermissionService {
         String applicationGroupName = applicationPermission.getPermissionsApplication().getPermissionsGroup().getName();
         boolean permissionRead = applicationPermission.isPermissionRead();
         boolean permissionWrite = applicationPermission.isPermissionWrite();
-        Set<String> readPartitions = applicationPermission.getReadPartitions().stream().map(ReadPartition::getPartitionName).collect(Collectors.toSet());
-        Set<String> writePartitions = applicationPermission.getWritePartitions().stream().map(WritePartition::getPartitionName).collect(Collectors.toSet());
         return new AccessPermissionDTO(
                 applicationPermission.getId(),
                 topicId,
@@ -284,6 +343,7 @@ public class ApplicationPermissionService {
         }
 
         applicationPermissionRepository.deleteById(permissionId);
+        permissionsChanged(List.of(applicationPermissionOptional.get().getPermissionsApplication().getId()));
         return HttpResponse.noContent();
     }
 
@@ -303,36 +363,87 @@ public class ApplicationPermissionService {
         }
 
         ApplicationPermission applicationPermission = applicationPermissionOptional.get();
-        applicationPermission.setPermissionRead(accessPermissionBodyDTO.isRead());
-        applicationPermission.setPermissionWrite(accessPermissionBodyDTO.isWrite());
+        boolean accessChanged = applicationPermission.isPermissionRead() != accessPermissionBodyDTO.isRead() ||
+                applicationPermission.isPermissionWrite() != accessPermissionBodyDTO.isWrite();
+        if (accessChanged) {
+            applicationPermissionRepository.update(permissionId, accessPermissionBodyDTO.isRead(), accessPermissionBodyDTO.isWrite());
+            applicationPermission.setPermissionRead(accessPermissionBodyDTO.isRead());
+            applicationPermission.setPermissionWrite(accessPermissionBodyDTO.isWrite());
+        }
 
-        readPartitionRepository.deleteAll(applicationPermission.getReadPartitions());
-        writePartitionRepository.deleteAll(applicationPermission.getWritePartitions());
-        addPartitionsToPermission(accessPermissionBodyDTO, applicationPermission);
+        // a missing set clears the partitions
+        Set<String> readPartitions = Optional.ofNullable(accessPermissionBodyDTO.getReadPartitions()).orElse(Set.of());
+        Set<String> writePartitions = Optional.ofNullable(accessPermissionBodyDTO.getWritePartitions()).orElse(Set.of());
+        boolean readPartitionsChanged = updatePartitions(
+                readPartitionRepository.findPartitionNameByApplicationPermissionId(permissionId), readPartitions,
+                removed -> readPartitionRepository.deleteByApplicationPermissionIdAndPartitionNameIn(permissionId, removed),
+                added -> readPartitionRepository.saveAll(readPartitions(applicationPermission, added)));
+        boolean writePartitionsChanged = updatePartitions(
+                writePartitionRepository.findPartitionNameByApplicationPermissionId(permissionId), writePartitions,
+                removed -> writePartitionRepository.deleteByApplicationPermissionIdAndPartitionNameIn(permissionId, removed),
+                added -> writePartitionRepository.saveAll(writePartitions(applicationPermission, added)));
+
+        if (accessChanged || readPartitionsChanged || writePartitionsChanged) {
+            permissionsChanged(List.of(applicationPermission.getPermissionsApplication().getId()));
+        }
+        return HttpResponse.ok(createDTO(applicationPermission, readPartitions, writePartitions));
+    }
 
-        return HttpResponse.ok(createDTO(applicationPermissionRepository.update(applicationPermission)));
+    // Writes only the difference: one delete for the removed names and one batch of inserts for the added ones.
+    private static boolean updatePartitions(Collection<String> current, Set<String> requested,
+                                            Consumer<Set<String>> deleteRemoved, Consumer<Set<String>> insertAdded) {
+        Set<String> removed = new HashSet<>(current);
+        removed.removeAll(requested);
+        Set<String> added = new HashSet<>(requested);
+        added.removeAll(current);
+
+        if (!removed.isEmpty()) {
+            deleteRemoved.accept(removed);
+        }
+        if (!added.isEmpty()) {
+            insertAdded.accept(added);
+        }
+        return !removed.isEmpty() || !added.isEmpty();
     }
 
     private void addPartitionsToPermission(AccessPermissionBodyDTO accessPermissionBodyDTO, ApplicationPermission applicationPermission) {
         Set<String> readPartitions = accessPermissionBodyDTO.getReadPartitions();
         Set<String> writePartitions = accessPermissionBodyDTO.getWritePartitions();
-        if (readPartitions != null) {
-            applicationPermission.setReadPartitions(readPartitions.stream()
-                    .map(r -> readPartitionRepository.save(new ReadPartition(applicationPermission, r)))
-                    .collect(Collectors.toSet()));
+        if (readPartitions != null && !readPartitions.isEmpty()) {
+            List<ReadPartition> partitions = readPartitions(applicationPermission, readPartitions);
+            readPartitionRepository.saveAll(partitions);
+            applicationPermission.setReadPartitions(new HashSet<>(partitions));
         }
-        if (writePartitions != null) {
-            applicationPermission.setWritePartitions(writePartitions.stream()
-                    .map(w -> writePartitionRepository.save(new WritePartition(applicationPermission, w)))
-                    .collect(Collectors.toSet()));
+        if (writePartitions != null && !writePartitions.isEmpty()) {
+            List<WritePartition> partitions = writePartitions(applicationPermission, writePartitions);
+            writePartitionRepository.saveAll(partitions);
+            applicationPermission.setWritePartitions(new HashSet<>(partitions));
         }
     }
 
+    private static List<ReadPartition> readPartitions(ApplicationPermission applicationPermission, Set<String> partitionNames) {
+        return partitionNames.stream().map(name -> new ReadPartition(applicationPermission, name)).collect(Collectors.toList());
+    }
+
+    private static List<WritePartition> writePartitions(ApplicationPermission applicationPermission, Set<String> partitionNames) {
+        return partitionNames.stream().map(name -> new WritePartition(applicationPermission, name)).collect(Collectors.toList());
+    }
+
     public void deleteAllByTopic(Topic topic) {
+        List<Long> applicationIds = applicationPermissionRepository.findPermissionsApplicationIdByPermissionsTopicIdIn(List.of(topic.getId()));
         applicationPermissionRepository.deleteByPermissionsTopicEquals(topic);
+        permissionsChanged(applicationIds);
     }
     public void deleteAllByApplication(Application application) {
         applicationPermissionRepository.deleteByPermissionsApplicationEquals(application);
+        permissionsChanged(List.of(application.getId()));
+    }
+
+    // Must run after the change is written: a reader that sees the new generation must also see the new grants.
+    private void permissionsChanged(Collection<Long> applicationIds) {
+        if (!applicationIds.isEmpty()) {
+            applicationRepository.incrementPermissionsGeneration(applicationIds);
+        }
     }
 
     public List<ApplicationPermission> findAllByApplicationAndReadEqualsTrue(Application application) {
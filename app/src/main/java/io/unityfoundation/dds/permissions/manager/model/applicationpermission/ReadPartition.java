@@ -13,17 +13,28 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.applicationpermission;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 
 @Entity
 @Table(name = "permissions_partition")
 public class ReadPartition {
 
+    // Ids are handed out in blocks from a table rather than by the identity column, so Hibernate can batch the inserts.
+    // Read and write partitions share the table, and with it the permissions_partition row of the generator.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "read_partition_id")
+    @GenericGenerator(name = "read_partition_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "permissions_id_generator"),
+            @Parameter(name = "segment_value", value = "permissions_partition"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
 //    @JoinColumn(name = "permissions_application_permission_id")
     private ApplicationPermission rApplicationPermission;
 
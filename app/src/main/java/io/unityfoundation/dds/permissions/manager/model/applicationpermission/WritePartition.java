@@ -13,17 +13,27 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.applicationpermission;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 
 @Entity
 @Table(name = "permissions_partition")
 public class WritePartition {
 
+    // draws from the same generator row as ReadPartition, see there
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "write_partition_id")
+    @GenericGenerator(name = "write_partition_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "permissions_id_generator"),
+            @Parameter(name = "segment_value", value = "permissions_partition"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
 //    @JoinColumn(name = "permissions_application_permission_id")
     private ApplicationPermission wApplicationPermission;
 
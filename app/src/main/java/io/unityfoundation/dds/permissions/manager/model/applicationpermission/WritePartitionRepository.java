@@ -13,9 +13,21 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.applicationpermission;
 
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.repository.PageableRepository;
 
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface WritePartitionRepository extends PageableRepository<WritePartition, Long> {
+
+    @Transactional
+    @Query("DELETE FROM WritePartition p WHERE p.wApplicationPermission.id = :applicationPermissionId AND p.partitionName IN (:partitionNames)")
+    void deleteByApplicationPermissionIdAndPartitionNameIn(Long applicationPermissionId, Collection<String> partitionNames);
+
+    @Query("SELECT p.partitionName FROM WritePartition p WHERE p.wApplicationPermission.id = :applicationPermissionId")
+    List<String> findPartitionNameByApplicationPermissionId(Long applicationPermissionId);
 }
@@ -16,8 +16,6 @@ package io.unityfoundation.dds.permissions.manager.model.group;
 import io.micronaut.core.annotation.Introspected;
 import io.unityfoundation.dds.permissions.manager.model.EntityDTO;
 
-import java.util.Set;
-
 @Introspected
 public class DetailedGroupDTO implements EntityDTO {
 
@@ -25,15 +23,25 @@ public class DetailedGroupDTO implements EntityDTO {
     private String name;
     private String description;
     private Boolean isPublic;
-    private Set<Long> topics;
-    private Set<Long> applications;
-    private int membershipCount;
-    private int topicCount;
-    private int applicationCount;
+    private long membershipCount;
+    private long topicCount;
+    private long applicationCount;
 
     public DetailedGroupDTO() {
     }
 
+    // Used by the projection queries in GroupRepository; the counts are computed by the database.
+    public DetailedGroupDTO(Long id, String name, String description, Boolean isPublic,
+                            Long membershipCount, Long topicCount, Long applicationCount) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.isPublic = isPublic;
+        this.membershipCount = membershipCount;
+        this.topicCount = topicCount;
+        this.applicationCount = applicationCount;
+    }
+
     public void setGroupFields(Group group) {
         this.id = group.getId();
         this.name = group.getName();
@@ -49,27 +57,11 @@ public class DetailedGroupDTO implements EntityDTO {
         return name;
     }
 
-    public Set<Long> getTopics() {
-        return topics;
-    }
-
-    public void setTopics(Set<Long> topics) {
-        this.topics = topics;
-    }
-
-    public Set<Long> getApplications() {
-        return applications;
-    }
-
-    public void setApplications(Set<Long> applications) {
-        this.applications = applications;
-    }
-
     public long getMembershipCount() {
         return membershipCount;
     }
 
-    public void setMembershipCount(int membershipCount) {
+    public void setMembershipCount(long membershipCount) {
         this.membershipCount = membershipCount;
     }
 
@@ -77,7 +69,7 @@ public class DetailedGroupDTO implements EntityDTO {
         return topicCount;
     }
 
-    public void setTopicCount(int topicCount) {
+    public void setTopicCount(long topicCount) {
         this.topicCount = topicCount;
     }
 
@@ -85,7 +77,7 @@ public class DetailedGroupDTO implements EntityDTO {
         return applicationCount;
     }
 
-    public void setApplicationCount(int applicationCount) {
+    public void setApplicationCount(long applicationCount) {
         this.applicationCount = applicationCount;
     }
 
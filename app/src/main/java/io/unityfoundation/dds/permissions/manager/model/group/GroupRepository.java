@@ -14,23 +14,56 @@
 package io.unityfoundation.dds.permissions.manager.model.group;
 
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
+import io.unityfoundation.dds.permissions.manager.search.SearchDocument;
 
 import javax.validation.constraints.NotNull;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends PageableRepository<Group, Long> {
+
+    // List pages select straight into DetailedGroupDTO with the member, topic and application counts as subqueries.
+    // The root alias is the one Micronaut uses when appending the Pageable's sort.
+    String SELECT_DTO = "SELECT new io.unityfoundation.dds.permissions.manager.model.group.DetailedGroupDTO(group_.id, group_.name, " +
+            "group_.description, group_.makePublic, " +
+            "(SELECT COUNT(gu) FROM GroupUser gu WHERE gu.permissionsGroup = group_), " +
+            "(SELECT COUNT(t) FROM Topic t WHERE t.permissionsGroup = group_), " +
+            "(SELECT COUNT(a) FROM Application a WHERE a.permissionsGroup = group_)) FROM io.unityfoundation.dds.permissions.manager.model.group.Group group_";
+    String SELECT_COUNT = "SELECT COUNT(group_) FROM io.unityfoundation.dds.permissions.manager.model.group.Group group_";
+    String FILTER = "(LOWER(group_.name) LIKE LOWER(CONCAT('%', :filter, '%')) OR LOWER(group_.description) LIKE LOWER(CONCAT('%', :filter, '%')))";
+    // Keyset pages continue after the last (name, id) returned.
+    String AFTER = "(group_.name > :afterName OR (group_.name = :afterName AND group_.id > :afterId)) ORDER BY group_.name, group_.id";
+
+    @Query(value = SELECT_DTO, countQuery = SELECT_COUNT)
+    Page<DetailedGroupDTO> findAllGroupDTOs(Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE " + FILTER, countQuery = SELECT_COUNT + " WHERE " + FILTER)
+    Page<DetailedGroupDTO> findGroupDTOsByFilter(String filter, Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE group_.id IN (:ids)", countQuery = SELECT_COUNT + " WHERE group_.id IN (:ids)")
+    Page<DetailedGroupDTO> findGroupDTOsByIdIn(List<Long> ids, Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE " + FILTER + " AND group_.id IN (:ids)", countQuery = SELECT_COUNT + " WHERE " + FILTER + " AND group_.id IN (:ids)")
+    Page<DetailedGroupDTO> findGroupDTOsByFilterAndIdIn(String filter, List<Long> ids, Pageable pageable);
+
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND " + AFTER)
+    List<DetailedGroupDTO> findGroupDTOsByFilterAfter(String filter, String afterName, Long afterId, Pageable pageable);
+
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND group_.id IN (:ids) AND " + AFTER)
+    List<DetailedGroupDTO> findGroupDTOsByFilterAndIdInAfter(String filter, List<Long> ids, String afterName, Long afterId, Pageable pageable);
+
     Optional<Group> findByName(@NotNull @NonNull String name);
-    Page<Group> findAllByIdIn(List<Long> groupIds, Pageable pageable);
     Page<Group> findAllByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(String groupName, String groupDescription, Pageable pageable);
-    List<Long> findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(String groupName, String groupDescription);
-    Page<Group> findAllByMakePublicTrue(Pageable pageable);
-    List<Group> findTop50ByMakePublicTrue();
-    Page<Group> findByMakePublicTrueAndIdIn(List<Long> groupIds, Pageable pageable);
-    List<Group> findTop50ByMakePublicTrueAndIdIn(List<Long> groupIds);
+    List<Group> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT new io.unityfoundation.dds.permissions.manager.search.SearchDocument('GROUP', g.id, g.name, g.description, g.makePublic) " +
+            "FROM io.unityfoundation.dds.permissions.manager.model.group.Group g")
+    List<SearchDocument> findSearchDocuments();
 }
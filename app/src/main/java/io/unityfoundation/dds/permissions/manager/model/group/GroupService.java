@@ -20,6 +20,10 @@ import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MutableHttpResponse;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
+import io.unityfoundation.dds.permissions.manager.model.CursorPage;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+import io.unityfoundation.dds.permissions.manager.model.EntityCache;
+import io.unityfoundation.dds.permissions.manager.model.KeysetCursor;
 import io.unityfoundation.dds.permissions.manager.model.application.Application;
 import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionRepository;
@@ -27,13 +31,13 @@ import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserServi
 import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
 import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.search.SearchIndex;
 import io.unityfoundation.dds.permissions.manager.security.SecurityUtil;
 import jakarta.inject.Singleton;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Singleton
 public class GroupService {
@@ -44,43 +48,32 @@ public class GroupService {
     private final ApplicationPermissionRepository applicationPermissionRepository;
     private final SecurityUtil securityUtil;
     private final GroupUserService groupUserService;
-
+    private final SearchIndex searchIndex;
+    private final EntityCache entityCache;
 
     public GroupService(GroupRepository groupRepository, ApplicationRepository applicationRepository, TopicRepository topicRepository, ApplicationPermissionRepository applicationPermissionRepository, SecurityUtil securityUtil,
-                        GroupUserService groupUserService) {
+                        GroupUserService groupUserService, SearchIndex searchIndex, EntityCache entityCache) {
         this.groupRepository = groupRepository;
         this.applicationRepository = applicationRepository;
         this.topicRepository = topicRepository;
         this.applicationPermissionRepository = applicationPermissionRepository;
         this.securityUtil = securityUtil;
         this.groupUserService = groupUserService;
+        this.searchIndex = searchIndex;
+        this.entityCache = entityCache;
     }
 
     public Page<DetailedGroupDTO> findAll(Pageable pageable, String filter) {
-        return getGroupPage(pageable, filter).map(group -> {
-            DetailedGroupDTO groupsResponseDTO = new DetailedGroupDTO();
-            groupsResponseDTO.setGroupFields(group);
-            groupsResponseDTO.setTopics(group.getTopics().stream().map(Topic::getId).collect(Collectors.toSet()));
-            groupsResponseDTO.setApplications(group.getApplications().stream().map(Application::getId).collect(Collectors.toSet()));
-            groupsResponseDTO.setTopicCount(group.getTopics().size());
-            groupsResponseDTO.setApplicationCount(group.getApplications().size());
-            groupsResponseDTO.setMembershipCount(groupUserService.getMembershipCountByGroup(group));
-
-            return groupsResponseDTO;
-        });
-    }
-
-    private Page<Group> getGroupPage(Pageable pageable, String filter) {
         if (!pageable.isSorted()) {
             pageable = pageable.order(Sort.Order.asc("name"));
         }
 
         if (securityUtil.isCurrentUserAdmin()) {
             if (filter == null) {
-                return groupRepository.findAll(pageable);
+                return groupRepository.findAllGroupDTOs(pageable);
             }
 
-            return groupRepository.findAllByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(filter, filter, pageable);
+            return groupRepository.findGroupDTOsByFilter(filter, pageable);
         } else {
             User user = securityUtil.getCurrentlyAuthenticatedUser().get();
             List<Long> groupsList = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
@@ -89,17 +82,32 @@ public class GroupService {
             }
 
             if (filter == null) {
-                return groupRepository.findAllByIdIn(groupsList, pageable);
+                return groupRepository.findGroupDTOsByIdIn(groupsList, pageable);
             }
 
-            List<Long> searchByNameOrDescription = groupRepository.findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(filter, filter);
-            List<Long> intersection = searchByNameOrDescription.stream()
-                    .distinct()
-                    .filter(groupsList::contains)
-                    .collect(Collectors.toList());
+            return groupRepository.findGroupDTOsByFilterAndIdIn(filter, groupsList, pageable);
+        }
+    }
+
+    // Keyset mode: ordered by name and id, no count. An empty filter matches every group.
+    public CursorPage<DetailedGroupDTO> findAllAfter(String cursor, int size, String filter) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        String text = filter == null ? "" : filter;
 
-            return groupRepository.findAllByIdIn(intersection, pageable);
+        List<DetailedGroupDTO> rows;
+        if (securityUtil.isCurrentUserAdmin()) {
+            rows = groupRepository.findGroupDTOsByFilterAfter(text, after.getKey(), after.getId(), CursorPage.fetch(size));
+        } else {
+            User user = securityUtil.getCurrentlyAuthenticatedUser().get();
+            List<Long> groupsList = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
+            if (groupsList.isEmpty()) {
+                return CursorPage.empty(size);
+            }
+
+            rows = groupRepository.findGroupDTOsByFilterAndIdInAfter(text, groupsList, after.getKey(), after.getId(), CursorPage.fetch(size));
         }
+
+        return CursorPage.of(rows, size, DetailedGroupDTO::getName, DetailedGroupDTO::getId);
     }
 
     public MutableHttpResponse<?> save(SimpleGroupDTO groupRequestDTO) {
@@ -131,6 +139,7 @@ public class GroupService {
             }
 
             group = groupById.get();
+            boolean renamed = !group.getName().equals(groupRequestDTO.getName());
             group.setName(groupRequestDTO.getName());
             group.setDescription(groupRequestDTO.getDescription());
             if (group.getMakePublic() && !isPublic) {
@@ -139,26 +148,26 @@ public class GroupService {
             group.setMakePublic(isPublic);
 
             group = groupRepository.update(group);
+            if (renamed) {
+                groupUserService.onGroupRenamed(group.getId());
+            }
         }
 
         return HttpResponse.ok(new SimpleGroupDTO(group.getId(), group.getName(), group.getDescription(), group.getMakePublic()));
     }
 
     private void cascadePrivate(Group group) {
+        List<Long> groupIds = List.of(group.getId());
 
-        if (group.getApplications() != null) {
-            group.getApplications().forEach(application -> {
-                application.setMakePublic(false);
-                applicationRepository.update(application);
-            });
-        }
+        applicationRepository.findByPermissionsGroupIdIn(groupIds).forEach(application -> {
+            application.setMakePublic(false);
+            applicationRepository.update(application);
+        });
 
-        if (group.getTopics() != null) {
-            group.getTopics().forEach(topic -> {
-                topic.setMakePublic(false);
-                topicRepository.update(topic);
-            });
-        }
+        topicRepository.findByPermissionsGroupIdIn(groupIds).forEach(topic -> {
+            topic.setMakePublic(false);
+            topicRepository.update(topic);
+        });
     }
 
     public MutableHttpResponse<?> deleteById(Long id) {
@@ -169,9 +178,24 @@ public class GroupService {
 
         Group group = groupOptional.get();
         groupUserService.removeByGroup(group);
-        applicationPermissionRepository.deleteByPermissionsApplicationIdIn(group.getApplications().stream().map(Application::getId).collect(Collectors.toList()));
-        applicationPermissionRepository.deleteByPermissionsTopicIdIn(group.getTopics().stream().map(Topic::getId).collect(Collectors.toList()));
+        List<Long> applicationIds = applicationRepository.findIdByPermissionsGroupIdIn(List.of(id));
+        applicationPermissionRepository.deleteByPermissionsApplicationIdIn(applicationIds);
+        List<Long> topicIds = topicRepository.findIdByPermissionsGroupIdIn(List.of(id));
+        if (!topicIds.isEmpty()) {
+            // applications of other groups lose their grants to this group's topics
+            List<Long> affectedApplicationIds = applicationPermissionRepository.findPermissionsApplicationIdByPermissionsTopicIdIn(topicIds);
+            applicationPermissionRepository.deleteByPermissionsTopicIdIn(topicIds);
+            if (!affectedApplicationIds.isEmpty()) {
+                applicationRepository.incrementPermissionsGeneration(affectedApplicationIds);
+            }
+        }
         groupRepository.deleteById(id);
+        // the group's topics and applications go with it by cascade, unseen by Hibernate
+        entityCache.evict(Topic.class, topicIds);
+        entityCache.evict(Application.class, applicationIds);
+        searchIndex.remove(DPMEntity.GROUP, id);
+        topicIds.forEach(topicId -> searchIndex.remove(DPMEntity.TOPIC, topicId));
+        applicationIds.forEach(applicationId -> searchIndex.remove(DPMEntity.APPLICATION, applicationId));
 
         return HttpResponse.seeOther(URI.create("/api/groups"));
     }
@@ -0,0 +1,34 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.groupuser;
+
+import java.util.Set;
+
+// Published whenever the group memberships or roles of the given users change, or the users are deleted.
+public class GroupMembershipChangedEvent {
+
+    private final Set<Long> userIds;
+
+    public GroupMembershipChangedEvent(Set<Long> userIds) {
+        this.userIds = Set.copyOf(userIds);
+    }
+
+    public GroupMembershipChangedEvent(Long userId) {
+        this(Set.of(userId));
+    }
+
+    public Set<Long> getUserIds() {
+        return userIds;
+    }
+}
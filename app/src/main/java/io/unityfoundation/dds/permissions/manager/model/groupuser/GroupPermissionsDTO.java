@@ -0,0 +1,70 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.groupuser;
+
+import io.micronaut.core.annotation.Introspected;
+
+// A membership's roles read straight from the row and its group's id and name, without loading the Group.
+@Introspected
+public class GroupPermissionsDTO {
+
+    private Long groupId;
+    private String groupName;
+    private boolean groupAdmin;
+    private boolean topicAdmin;
+    private boolean applicationAdmin;
+
+    public GroupPermissionsDTO() {
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    public boolean isGroupAdmin() {
+        return groupAdmin;
+    }
+
+    public void setGroupAdmin(boolean groupAdmin) {
+        this.groupAdmin = groupAdmin;
+    }
+
+    public boolean isTopicAdmin() {
+        return topicAdmin;
+    }
+
+    public void setTopicAdmin(boolean topicAdmin) {
+        this.topicAdmin = topicAdmin;
+    }
+
+    public boolean isApplicationAdmin() {
+        return applicationAdmin;
+    }
+
+    public void setApplicationAdmin(boolean applicationAdmin) {
+        this.applicationAdmin = applicationAdmin;
+    }
+}
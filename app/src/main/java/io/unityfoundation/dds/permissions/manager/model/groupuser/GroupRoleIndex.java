@@ -0,0 +1,145 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.groupuser;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group roles of recently active users, loaded from their GroupUser rows on first use and dropped
+ * as soon as a {@link GroupMembershipChangedEvent} names them. Events are local to this instance, so
+ * each entry also keeps the user's permissionsLastUpdated from when it was loaded and is reloaded
+ * once the caller sees a newer one, or once it is older than ttl. The least recently used users are
+ * evicted beyond max-users.
+ */
+@Singleton
+public class GroupRoleIndex implements MeterBinder {
+
+    private final GroupUserRepository groupUserRepository;
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Map<Long, Entry> rolesByUser = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxUsers;
+        }
+    };
+    // bumped by every invalidation, so a load that raced one is returned but not kept
+    private long generation;
+
+    public GroupRoleIndex(GroupUserRepository groupUserRepository,
+                          @Property(name = "permissions-manager.authorization.role-index.max-users", defaultValue = "10000") int maxUsers,
+                          @Property(name = "permissions-manager.authorization.role-index.ttl", defaultValue = "30s") Duration ttl) {
+        this.groupUserRepository = groupUserRepository;
+        this.maxUsers = Math.max(1, maxUsers);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // For users whose current permissionsLastUpdated is not at hand; only the ttl bounds staleness.
+    public GroupRoles get(Long userId) {
+        return get(userId, null, false);
+    }
+
+    // Reloads the entry unless it was loaded at the given permissionsLastUpdated.
+    public GroupRoles get(Long userId, Long permissionsLastUpdated) {
+        return get(userId, permissionsLastUpdated, true);
+    }
+
+    private GroupRoles get(Long userId, Long permissionsLastUpdated, boolean checkStamp) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = rolesByUser.get(userId);
+            if (entry != null && !entry.isExpired(ttlNanos)
+                    && (!checkStamp || Objects.equals(entry.permissionsLastUpdated, permissionsLastUpdated))) {
+                hits.increment();
+                return entry.roles;
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        long loadedAt = System.nanoTime();
+        GroupRoles roles = GroupRoles.fromMemberships(groupUserRepository.findAllByPermissionsUserId(userId));
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                rolesByUser.put(userId, new Entry(roles, permissionsLastUpdated, loadedAt));
+            }
+        }
+        return roles;
+    }
+
+    // Drops the users right away so the rest of the writing transaction reads its own changes...
+    @EventListener
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        invalidate(event);
+    }
+
+    // ...and again once it commits, in case a concurrent request reloaded them from the old rows meanwhile.
+    @TransactionalEventListener
+    public void onMembershipChangeCommitted(GroupMembershipChangedEvent event) {
+        invalidate(event);
+    }
+
+    public synchronized int size() {
+        return rolesByUser.size();
+    }
+
+    private synchronized void invalidate(GroupMembershipChangedEvent event) {
+        generation++;
+        event.getUserIds().forEach(rolesByUser::remove);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dpm.authorization.role-index.size", this, GroupRoleIndex::size)
+                .register(registry);
+        FunctionCounter.builder("dpm.authorization.role-index.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("dpm.authorization.role-index.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private static class Entry {
+        private final GroupRoles roles;
+        private final Long permissionsLastUpdated;
+        private final long loadedAt;
+
+        private Entry(GroupRoles roles, Long permissionsLastUpdated, long loadedAt) {
+            this.roles = roles;
+            this.permissionsLastUpdated = permissionsLastUpdated;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt >= ttlNanos;
+        }
+    }
+}
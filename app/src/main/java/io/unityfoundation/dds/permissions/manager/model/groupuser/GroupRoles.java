@@ -0,0 +1,133 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.groupuser;
+
+import java.util.*;
+
+/**
+ * A user's roles in each of their groups, one bitset per group id. Read either from the user's
+ * GroupUser rows or from the permissionsByGroup claim of their token, which holds the same flags
+ * as of permissionsLastUpdated.
+ */
+public final class GroupRoles {
+
+    public static final String PERMISSIONS_BY_GROUP_CLAIM = "permissionsByGroup";
+    public static final String PERMISSIONS_LAST_UPDATED_CLAIM = "permissionsLastUpdated";
+
+    public static final byte MEMBER = 1;
+    public static final byte GROUP_ADMIN = 1 << 1;
+    public static final byte TOPIC_ADMIN = 1 << 2;
+    public static final byte APPLICATION_ADMIN = 1 << 3;
+
+    public static final GroupRoles NONE = new GroupRoles(new long[0], new byte[0]);
+
+    // sorted, so a lookup is a binary search over the user's handful of groups
+    private final long[] groupIds;
+    private final byte[] roles;
+
+    private GroupRoles(long[] groupIds, byte[] roles) {
+        this.groupIds = groupIds;
+        this.roles = roles;
+    }
+
+    public static GroupRoles fromMemberships(List<GroupUser> memberships) {
+        SortedMap<Long, Byte> roles = new TreeMap<>();
+        memberships.forEach(groupUser -> roles.put(groupUser.getPermissionsGroup().getId(),
+                roles(groupUser.isGroupAdmin(), groupUser.isTopicAdmin(), groupUser.isApplicationAdmin())));
+        return of(roles);
+    }
+
+    // Empty if the claim is missing or not in the shape GroupUserService.getAllPermissionsPerGroupUserIsMemberOf writes.
+    public static Optional<GroupRoles> fromClaim(Object claim) {
+        if (!(claim instanceof Collection)) {
+            return Optional.empty();
+        }
+
+        SortedMap<Long, Byte> roles = new TreeMap<>();
+        for (Object entry : (Collection<?>) claim) {
+            if (!(entry instanceof Map)) {
+                return Optional.empty();
+            }
+            Map<?, ?> group = (Map<?, ?>) entry;
+            if (!(group.get("groupId") instanceof Number)) {
+                return Optional.empty();
+            }
+            roles.put(((Number) group.get("groupId")).longValue(), roles(
+                    Boolean.TRUE.equals(group.get("isGroupAdmin")),
+                    Boolean.TRUE.equals(group.get("isTopicAdmin")),
+                    Boolean.TRUE.equals(group.get("isApplicationAdmin"))));
+        }
+        return Optional.of(of(roles));
+    }
+
+    public boolean isMember(Long groupId) {
+        return has(groupId, MEMBER);
+    }
+
+    public boolean isGroupAdmin(Long groupId) {
+        return has(groupId, GROUP_ADMIN);
+    }
+
+    public boolean isTopicAdmin(Long groupId) {
+        return has(groupId, TOPIC_ADMIN);
+    }
+
+    public boolean isApplicationAdmin(Long groupId) {
+        return has(groupId, APPLICATION_ADMIN);
+    }
+
+    public List<Long> getGroupIds() {
+        List<Long> ids = new ArrayList<>(groupIds.length);
+        for (long groupId : groupIds) {
+            ids.add(groupId);
+        }
+        return ids;
+    }
+
+    private boolean has(Long groupId, byte role) {
+        if (groupId == null) {
+            return false;
+        }
+        int index = Arrays.binarySearch(groupIds, groupId);
+        return index >= 0 && (roles[index] & role) != 0;
+    }
+
+    private static byte roles(boolean groupAdmin, boolean topicAdmin, boolean applicationAdmin) {
+        int roles = MEMBER;
+        if (groupAdmin) {
+            roles |= GROUP_ADMIN;
+        }
+        if (topicAdmin) {
+            roles |= TOPIC_ADMIN;
+        }
+        if (applicationAdmin) {
+            roles |= APPLICATION_ADMIN;
+        }
+        return (byte) roles;
+    }
+
+    private static GroupRoles of(SortedMap<Long, Byte> roles) {
+        if (roles.isEmpty()) {
+            return NONE;
+        }
+        long[] groupIds = new long[roles.size()];
+        byte[] flags = new byte[roles.size()];
+        int i = 0;
+        for (Map.Entry<Long, Byte> entry : roles.entrySet()) {
+            groupIds[i] = entry.getKey();
+            flags[i++] = entry.getValue();
+        }
+        return new GroupRoles(groupIds, flags);
+    }
+}
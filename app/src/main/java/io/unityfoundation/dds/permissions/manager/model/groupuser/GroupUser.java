@@ -26,10 +26,10 @@ public class GroupUser {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(optional = false, fetch = FetchType.EAGER, cascade = CascadeType.DETACH)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY, cascade = CascadeType.DETACH)
     private Group permissionsGroup;
 
-    @ManyToOne(optional = false, fetch = FetchType.EAGER, cascade = CascadeType.DETACH)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY, cascade = CascadeType.DETACH)
     private User permissionsUser;
 
     @NonNull
@@ -14,6 +14,8 @@
 package io.unityfoundation.dds.permissions.manager.model.groupuser;
 
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
@@ -28,6 +30,42 @@ import java.util.Optional;
 @Repository
 public interface GroupUserRepository extends PageableRepository<GroupUser, Long> {
 
+    // List pages select straight into GroupUserResponseDTO. The root alias is the one Micronaut uses when appending the Pageable's sort.
+    String SELECT_DTO = "SELECT new io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserResponseDTO(groupUser_.id, " +
+            "permissionsUser_.id, permissionsUser_.email, permissionsGroup_.id, permissionsGroup_.name, " +
+            "groupUser_.groupAdmin, groupUser_.topicAdmin, groupUser_.applicationAdmin) " +
+            "FROM GroupUser groupUser_ JOIN groupUser_.permissionsGroup permissionsGroup_ JOIN groupUser_.permissionsUser permissionsUser_";
+    String SELECT_COUNT = "SELECT COUNT(groupUser_) FROM GroupUser groupUser_ " +
+            "JOIN groupUser_.permissionsGroup permissionsGroup_ JOIN groupUser_.permissionsUser permissionsUser_";
+    String FILTER = "(LOWER(permissionsGroup_.name) LIKE LOWER(CONCAT('%', :filter, '%')) OR LOWER(permissionsUser_.email) LIKE LOWER(CONCAT('%', :filter, '%')))";
+    // Keyset pages continue after the last (email, id) returned.
+    String AFTER = "(permissionsUser_.email > :afterEmail OR (permissionsUser_.email = :afterEmail AND groupUser_.id > :afterId)) " +
+            "ORDER BY permissionsUser_.email, groupUser_.id";
+
+    @Query(value = SELECT_DTO, countQuery = SELECT_COUNT)
+    Page<GroupUserResponseDTO> findAllMemberDTOs(Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE permissionsGroup_.id IN (:groupIds)")
+    Page<GroupUserResponseDTO> findMemberDTOsByGroupIdIn(List<Long> groupIds, Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE " + FILTER, countQuery = SELECT_COUNT + " WHERE " + FILTER)
+    Page<GroupUserResponseDTO> findMemberDTOsByFilter(String filter, Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds)")
+    Page<GroupUserResponseDTO> findMemberDTOsByFilterAndGroupIdIn(String filter, List<Long> groupIds, Pageable pageable);
+
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND " + AFTER)
+    List<GroupUserResponseDTO> findMemberDTOsByFilterAfter(String filter, String afterEmail, Long afterId, Pageable pageable);
+
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds) AND " + AFTER)
+    List<GroupUserResponseDTO> findMemberDTOsByFilterAndGroupIdInAfter(String filter, List<Long> groupIds, String afterEmail, Long afterId, Pageable pageable);
+
+    @Join("permissionsGroup")
+    @Join("permissionsUser")
+    Optional<GroupUser> findById(@NotNull @NonNull Long id);
+
     int countByPermissionsGroupIdAndPermissionsUserIdAndGroupAdminTrue(@NotNull @NonNull Long groupId, @NotNull @NonNull Long userId);
     int countByPermissionsGroupIdAndPermissionsUserIdAndTopicAdminTrue(@NotNull @NonNull Long groupId, @NotNull @NonNull Long userId);
     int countByPermissionsGroupIdAndPermissionsUserIdAndApplicationAdminTrue(@NotNull @NonNull Long groupId, @NotNull @NonNull Long userId);
@@ -37,13 +75,9 @@ public interface GroupUserRepository extends PageableRepository<GroupUser, Long>
 
     List<GroupUser> findAllByPermissionsUserId(@NotNull @NonNull Long userId);
 
-    Page<GroupUser> findAllByPermissionsGroupIdIn(@NotNull @NonNull List<Long> groupIds, Pageable pageable);
-
-    Page<GroupUser> findAllByPermissionsGroupNameContainsIgnoreCaseOrPermissionsUserEmailContainsIgnoreCase(@NotNull @NonNull String name, @NotNull @NonNull String email, Pageable pageable);
-
-    List<Long> findIdByPermissionsGroupNameContainsIgnoreCaseOrPermissionsUserEmailContainsIgnoreCase(String filter, String filter1);
-
-    Page<GroupUser> findAllByIdInAndPermissionsGroupIdIn(List<Long> groupUsersList, List<Long> groupsList, Pageable pageable);
+    @Query("SELECT gu.permissionsGroup.id AS groupId, gu.permissionsGroup.name AS groupName, gu.groupAdmin AS groupAdmin, " +
+            "gu.topicAdmin AS topicAdmin, gu.applicationAdmin AS applicationAdmin FROM GroupUser gu WHERE gu.permissionsUser.id = :userId")
+    List<GroupPermissionsDTO> findGroupPermissionsByUserId(@NotNull @NonNull Long userId);
 
     // todo: fix to have desired effect
 //    Page<GroupUser> findAllByPermissionsGroupNameContainsOrPermissionsUserEmailContainsAndPermissionsGroupIdIn(@NotNull @NonNull String name, @NotNull @NonNull String email, List<Long> groupsList, Pageable pageable);
@@ -53,9 +87,9 @@ public interface GroupUserRepository extends PageableRepository<GroupUser, Long>
 
     boolean existsByPermissionsGroupIdAndPermissionsUserId(@NotNull @NonNull Long groupId, @NotNull @NonNull Long userId);
 
+    @Join("permissionsUser")
     List<GroupUser> findAllByPermissionsGroupId(@NotNull @NonNull Long groupId);
     List<User> findPermissionsUserByPermissionsGroupIdAndPermissionsUserAdminFalse(Long permissionsGroup_id);
-    int countByPermissionsGroup(Group group);
 
     Page<Group> findPermissionsGroupByPermissionsUserEqualsAndPermissionsGroupNameContainsIgnoreCaseAndGroupAdminTrue(User permissionsUser, String group, Pageable pageable);
     Page<Group> findPermissionsGroupByPermissionsUserEqualsAndPermissionsGroupNameContainsIgnoreCaseAndTopicAdminTrue(User permissionsUser, String group, Pageable pageable);
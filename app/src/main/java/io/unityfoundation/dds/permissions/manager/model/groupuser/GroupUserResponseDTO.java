@@ -41,6 +41,19 @@ public class GroupUserResponseDTO {
         this.isApplicationAdmin = member.isApplicationAdmin();
     }
 
+    // Used by the projection queries in GroupUserRepository.
+    public GroupUserResponseDTO(Long id, Long permissionsUser, String permissionsUserEmail, Long permissionsGroup, String permissionsGroupName,
+                                Boolean isGroupAdmin, Boolean isTopicAdmin, Boolean isApplicationAdmin) {
+        this.id = id;
+        this.permissionsUser = permissionsUser;
+        this.permissionsUserEmail = permissionsUserEmail;
+        this.permissionsGroup = permissionsGroup;
+        this.permissionsGroupName = permissionsGroupName;
+        this.isGroupAdmin = isGroupAdmin;
+        this.isTopicAdmin = isTopicAdmin;
+        this.isApplicationAdmin = isApplicationAdmin;
+    }
+
     public Long getId() {
         return id;
     }
@@ -13,6 +13,7 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.groupuser;
 
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.http.HttpResponse;
@@ -21,6 +22,8 @@ import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Body;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.model.CursorPage;
+import io.unityfoundation.dds.permissions.manager.model.KeysetCursor;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
 import io.unityfoundation.dds.permissions.manager.model.group.GroupAdminRole;
 import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
@@ -40,41 +43,39 @@ public class GroupUserService {
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
     private final SecurityUtil securityUtil;
+    private final GroupRoleIndex groupRoleIndex;
+    private final UserValidityCache userValidityCache;
+    private final ApplicationEventPublisher<GroupMembershipChangedEvent> membershipEventPublisher;
 
     public GroupUserService(GroupUserRepository groupUserRepository, GroupRepository groupRepository,
-            UserRepository userRepository, SecurityUtil securityUtil) {
+            UserRepository userRepository, SecurityUtil securityUtil, GroupRoleIndex groupRoleIndex, UserValidityCache userValidityCache,
+            ApplicationEventPublisher<GroupMembershipChangedEvent> membershipEventPublisher) {
         this.groupUserRepository = groupUserRepository;
         this.groupRepository = groupRepository;
         this.userRepository = userRepository;
         this.securityUtil = securityUtil;
+        this.groupRoleIndex = groupRoleIndex;
+        this.userValidityCache = userValidityCache;
+        this.membershipEventPublisher = membershipEventPublisher;
     }
 
     public Page<GroupUserResponseDTO> findAll(Pageable pageable, String filter, Long groupId) {
-        return getGroupMembers(pageable, filter, groupId).map(GroupUserResponseDTO::new);
-    }
-
-    private Page<GroupUser> getGroupMembers(Pageable pageable, String filter, Long groupId) {
         if (!pageable.isSorted()) {
             pageable = pageable.order("permissionsUser.email").order("permissionsGroup.name");
         }
 
-        List<Long> all;
         if (securityUtil.isCurrentUserAdmin()) {
             if (filter == null) {
                 if (groupId == null) {
-                    return groupUserRepository.findAll(pageable);
+                    return groupUserRepository.findAllMemberDTOs(pageable);
                 }
-                return groupUserRepository.findAllByPermissionsGroupIdIn(List.of(groupId), pageable);
+                return groupUserRepository.findMemberDTOsByGroupIdIn(List.of(groupId), pageable);
             }
             if (groupId == null) {
-                return groupUserRepository.findAllByPermissionsGroupNameContainsIgnoreCaseOrPermissionsUserEmailContainsIgnoreCase(filter,
-                        filter, pageable);
+                return groupUserRepository.findMemberDTOsByFilter(filter, pageable);
             }
 
-            all = groupUserRepository
-                        .findIdByPermissionsGroupNameContainsIgnoreCaseOrPermissionsUserEmailContainsIgnoreCase(filter, filter);
-
-            return groupUserRepository.findAllByIdInAndPermissionsGroupIdIn(all, List.of(groupId), pageable);
+            return groupUserRepository.findMemberDTOsByFilterAndGroupIdIn(filter, List.of(groupId), pageable);
         } else {
             User user = securityUtil.getCurrentlyAuthenticatedUser().get();
             List<Long> groupsList = getAllGroupsUserIsAMemberOf(user.getId());
@@ -89,17 +90,39 @@ public class GroupUserService {
             }
 
             if (filter == null) {
-                return groupUserRepository.findAllByPermissionsGroupIdIn(groupsList, pageable);
+                return groupUserRepository.findMemberDTOsByGroupIdIn(groupsList, pageable);
             }
 
-            all = groupUserRepository
-                    .findIdByPermissionsGroupNameContainsIgnoreCaseOrPermissionsUserEmailContainsIgnoreCase(filter, filter);
-            if (all.isEmpty()) {
-                return Page.empty();
+            return groupUserRepository.findMemberDTOsByFilterAndGroupIdIn(filter, groupsList, pageable);
+        }
+    }
+
+    // Keyset mode: ordered by member email and membership id, no count. An empty filter matches every membership.
+    public CursorPage<GroupUserResponseDTO> findAllAfter(String cursor, int size, String filter, Long groupId) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        String text = filter == null ? "" : filter;
+
+        List<GroupUserResponseDTO> rows;
+        if (securityUtil.isCurrentUserAdmin()) {
+            rows = groupId == null ?
+                    groupUserRepository.findMemberDTOsByFilterAfter(text, after.getKey(), after.getId(), CursorPage.fetch(size)) :
+                    groupUserRepository.findMemberDTOsByFilterAndGroupIdInAfter(text, List.of(groupId), after.getKey(), after.getId(), CursorPage.fetch(size));
+        } else {
+            User user = securityUtil.getCurrentlyAuthenticatedUser().get();
+            List<Long> groupsList = getAllGroupsUserIsAMemberOf(user.getId());
+
+            if (groupsList.isEmpty() || (groupId != null && !groupsList.contains(groupId))) {
+                return CursorPage.empty(size);
+            }
+
+            if (groupId != null) {
+                groupsList = List.of(groupId);
             }
 
-            return groupUserRepository.findAllByIdInAndPermissionsGroupIdIn(all, groupsList, pageable);
+            rows = groupUserRepository.findMemberDTOsByFilterAndGroupIdInAfter(text, groupsList, after.getKey(), after.getId(), CursorPage.fetch(size));
         }
+
+        return CursorPage.of(rows, size, GroupUserResponseDTO::getPermissionsUserEmail, GroupUserResponseDTO::getId);
     }
 
     @Transactional(Transactional.TxType.REQUIRES_NEW)
@@ -108,30 +131,28 @@ public class GroupUserService {
     }
 
     public boolean isUserGroupAdminOfGroup(Long groupId, Long userId) {
-        int groupUserCount = groupUserRepository.countByPermissionsGroupIdAndPermissionsUserIdAndGroupAdminTrue(groupId,
-                userId);
-        return groupUserCount > 0;
+        return getGroupRoles(userId).isGroupAdmin(groupId);
     }
 
     public boolean isUserTopicAdminOfGroup(Long groupId, Long userId) {
-        int groupUserCount = groupUserRepository.countByPermissionsGroupIdAndPermissionsUserIdAndTopicAdminTrue(groupId,
-                userId);
-        return groupUserCount > 0;
+        return getGroupRoles(userId).isTopicAdmin(groupId);
     }
 
     public boolean isUserApplicationAdminOfGroup(Long groupId, Long userId) {
-        int groupUserCount = groupUserRepository
-                .countByPermissionsGroupIdAndPermissionsUserIdAndApplicationAdminTrue(groupId, userId);
-        return groupUserCount > 0;
+        return getGroupRoles(userId).isApplicationAdmin(groupId);
     }
 
     public List<Long> getAllGroupsUserIsAMemberOf(Long userId) {
-        return groupUserRepository.findAllByPermissionsUserId(userId).stream().map(GroupUser::getPermissionsGroup)
-                .map(Group::getId).collect(Collectors.toList());
+        return getGroupRoles(userId).getGroupIds();
     }
 
     public boolean isUserMemberOfGroup(Long groupId, Long userId) {
-        return groupUserRepository.existsByPermissionsGroupIdAndPermissionsUserId(groupId, userId);
+        return getGroupRoles(userId).isMember(groupId);
+    }
+
+    // The caller's token claims when still current, the shared index otherwise.
+    private GroupRoles getGroupRoles(Long userId) {
+        return securityUtil.getCurrentUserGroupRoles(userId).orElseGet(() -> groupRoleIndex.get(userId));
     }
 
     public boolean isCurrentUserMemberOfGroup(Long groupId) {
@@ -206,7 +227,12 @@ public class GroupUserService {
         groupUser.setTopicAdmin(groupUserDTO.isTopicAdmin());
         groupUser.setApplicationAdmin(groupUserDTO.isApplicationAdmin());
 
-        return groupUserRepository.save(groupUser);
+        user.setPermissionsLastUpdated(System.currentTimeMillis());
+        userRepository.update(user);
+
+        GroupUser saved = groupUserRepository.save(groupUser);
+        membershipEventPublisher.publishEvent(new GroupMembershipChangedEvent(user.getId()));
+        return saved;
     }
 
     private GroupUser updateFromDTO(GroupUser groupUser, GroupUserDTO groupUserDTO) {
@@ -218,7 +244,9 @@ public class GroupUserService {
         user.setPermissionsLastUpdated(System.currentTimeMillis());
         userRepository.update(user);
 
-        return groupUserRepository.update(groupUser);
+        GroupUser updated = groupUserRepository.update(groupUser);
+        membershipEventPublisher.publishEvent(new GroupMembershipChangedEvent(user.getId()));
+        return updated;
     }
 
     public HttpResponse removeMember(Long id) {
@@ -237,6 +265,7 @@ public class GroupUserService {
 
         User user = groupUser.getPermissionsUser();
         groupUserRepository.deleteById(id);
+        membershipEventPublisher.publishEvent(new GroupMembershipChangedEvent(user.getId()));
 
         int countByPermissionsUser = groupUserRepository.countByPermissionsUserId(user.getId());
         if (!user.isAdmin() && countByPermissionsUser == 0) {
@@ -250,23 +279,18 @@ public class GroupUserService {
     }
 
     public List<Map<String, Object>> getAllPermissionsPerGroupUserIsMemberOf(Long id) {
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        List<GroupUser> groupUserList = groupUserRepository.findAllByPermissionsUserId(id);
-        groupUserList.forEach(groupUser -> {
-            Group group = groupUser.getPermissionsGroup();
-            if (group != null) {
-                result.add(
-                        Map.of(
-                                "groupId", group.getId(),
-                                "groupName", group.getName(),
-                                "isGroupAdmin", groupUser.isGroupAdmin(),
-                                "isTopicAdmin", groupUser.isTopicAdmin(),
-                                "isApplicationAdmin", groupUser.isApplicationAdmin()));
-            }
-        });
+        return toPermissionsClaim(groupUserRepository.findGroupPermissionsByUserId(id));
+    }
 
-        return result;
+    private static List<Map<String, Object>> toPermissionsClaim(List<GroupPermissionsDTO> groupPermissions) {
+        return groupPermissions.stream()
+                .map(permissions -> Map.<String, Object>of(
+                        "groupId", permissions.getGroupId(),
+                        "groupName", permissions.getGroupName(),
+                        "isGroupAdmin", permissions.isGroupAdmin(),
+                        "isTopicAdmin", permissions.isTopicAdmin(),
+                        "isApplicationAdmin", permissions.isApplicationAdmin()))
+                .collect(Collectors.toList());
     }
 
     public Page<Group> getAllGroupsUserIsAnAdminOf(User user, String filter, Pageable pageable, GroupAdminRole role) {
@@ -288,41 +312,73 @@ public class GroupUserService {
         return (Page<Group>) Page.EMPTY;
     }
 
-    public int getMembershipCountByGroup(Group group) {
-        return groupUserRepository.countByPermissionsGroup(group);
-    }
-
     public HashMap<String, Object> checkUserValidity() {
+        return new HashMap<>(getUserValidity().getAttributes());
+    }
 
+    // Reuses the caller's last snapshot while its permissionsLastUpdated is unchanged.
+    public UserValidity getUserValidity() {
         Optional<User> userOptional = securityUtil.getCurrentlyAuthenticatedUser();
-        if (userOptional.isEmpty()
-                || (!userOptional.get().isAdmin() && countMembershipsByUserId(userOptional.get().getId()) == 0)) {
+        if (userOptional.isEmpty()) {
             throw new DPMException(ResponseStatusCodes.USER_IS_NOT_VALID, HttpStatus.NOT_FOUND);
         }
 
         User user = userOptional.get();
+        UserValidity cached = userValidityCache.get(user);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<GroupPermissionsDTO> groupPermissions = groupUserRepository.findGroupPermissionsByUserId(user.getId());
+        if (!user.isAdmin() && groupPermissions.isEmpty()) {
+            throw new DPMException(ResponseStatusCodes.USER_IS_NOT_VALID, HttpStatus.NOT_FOUND);
+        }
+
         HashMap<String, Object> attributes = new HashMap<>();
-        List<Map<String, Object>> permissions = getAllPermissionsPerGroupUserIsMemberOf(user.getId());
         attributes.put("name", user.getEmail());
-        attributes.put("permissionsByGroup", permissions);
+        attributes.put(GroupRoles.PERMISSIONS_BY_GROUP_CLAIM, toPermissionsClaim(groupPermissions));
         attributes.put("id", user.getId());
         attributes.put("isAdmin", user.isAdmin());
-        attributes.put("permissionsLastUpdated", user.getPermissionsLastUpdated());
+        attributes.put(GroupRoles.PERMISSIONS_LAST_UPDATED_CLAIM, user.getPermissionsLastUpdated());
+
+        UserValidity validity = new UserValidity(user, attributes);
+        userValidityCache.put(validity);
+        return validity;
+    }
 
-        return attributes;
+    // Group names are part of every member's claims and token_info, so a rename moves their permissionsLastUpdated.
+    @Transactional
+    public void onGroupRenamed(Long groupId) {
+        long now = System.currentTimeMillis();
+        Set<Long> userIds = new HashSet<>();
+        groupUserRepository.findAllByPermissionsGroupId(groupId).forEach(groupUser -> {
+            User user = groupUser.getPermissionsUser();
+            user.setPermissionsLastUpdated(now);
+            userRepository.update(user);
+            userIds.add(user.getId());
+        });
+        membershipEventPublisher.publishEvent(new GroupMembershipChangedEvent(userIds));
     }
 
     public void removeByGroup(Group group) {
 
-        // collect non-super admin users
-        List<User> nonAdminTargetGroupMembers = groupUserRepository.findPermissionsUserByPermissionsGroupIdAndPermissionsUserAdminFalse(group.getId());
+        List<User> targetGroupMembers = groupUserRepository.findAllByPermissionsGroupId(group.getId()).stream()
+                .map(GroupUser::getPermissionsUser)
+                .collect(Collectors.toList());
 
         groupUserRepository.deleteByPermissionsGroupId(group.getId());
+        membershipEventPublisher.publishEvent(new GroupMembershipChangedEvent(targetGroupMembers.stream()
+                .map(User::getId)
+                .collect(Collectors.toSet())));
 
-        nonAdminTargetGroupMembers.forEach( user -> {
+        targetGroupMembers.forEach( user -> {
             int countByPermissionsUser = groupUserRepository.countByPermissionsUserIdAndPermissionsGroupIdNotEqual(user.getId(), group.getId());
-            if (countByPermissionsUser == 0) {
+            // non-super admin users without other memberships are removed
+            if (!user.isAdmin() && countByPermissionsUser == 0) {
                 userRepository.delete(user);
+            } else {
+                user.setPermissionsLastUpdated(System.currentTimeMillis());
+                userRepository.update(user);
             }
         });
     }
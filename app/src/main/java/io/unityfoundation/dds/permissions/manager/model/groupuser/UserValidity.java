@@ -0,0 +1,63 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.groupuser;
+
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The token_info attributes of a valid user as of one permissionsLastUpdated. The version changes
+ * whenever the attributes do, so it can serve as (part of) an ETag.
+ */
+public final class UserValidity {
+
+    private final Long userId;
+    private final String email;
+    private final boolean admin;
+    private final Long permissionsLastUpdated;
+    private final Map<String, Object> attributes;
+    private final String version;
+
+    UserValidity(User user, Map<String, Object> attributes) {
+        this.userId = user.getId();
+        this.email = user.getEmail();
+        this.admin = user.isAdmin();
+        this.permissionsLastUpdated = user.getPermissionsLastUpdated();
+        this.attributes = Collections.unmodifiableMap(attributes);
+        // Map.hashCode is specified over the String, Long, Boolean and List values here, so it is stable across restarts
+        this.version = userId + "-" + permissionsLastUpdated + "-" + Integer.toHexString(attributes.hashCode());
+    }
+
+    boolean isCurrentFor(User user) {
+        return userId.equals(user.getId())
+                && admin == user.isAdmin()
+                && email.equals(user.getEmail())
+                && Objects.equals(permissionsLastUpdated, user.getPermissionsLastUpdated());
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.groupuser;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Latest token_info snapshot per user. A snapshot is only served while the user's permissionsLastUpdated,
+// admin flag and email are unchanged; membership changes and group renames, which move the stamp of every
+// member, also drop entries outright.
+@Singleton
+public class UserValidityCache {
+
+    @Property(name = "permissions-manager.token-info.cache-size", defaultValue = "1000")
+    protected int maxSize;
+
+    private final Map<Long, UserValidity> snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserValidity> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public synchronized UserValidity get(User user) {
+        UserValidity snapshot = snapshots.get(user.getId());
+        if (snapshot != null && snapshot.isCurrentFor(user)) {
+            return snapshot;
+        }
+        return null;
+    }
+
+    public synchronized void put(UserValidity snapshot) {
+        snapshots.put(snapshot.getUserId(), snapshot);
+    }
+
+    @EventListener
+    public synchronized void onMembershipChanged(GroupMembershipChangedEvent event) {
+        event.getUserIds().forEach(snapshots::remove);
+    }
+}
@@ -17,6 +17,8 @@ package io.unityfoundation.dds.permissions.manager.model.topic;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -24,6 +26,8 @@ import javax.validation.constraints.Size;
 
 @Entity
 @Table(name = "permissions_topic")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "topic")
 public class Topic {
 
     @Id
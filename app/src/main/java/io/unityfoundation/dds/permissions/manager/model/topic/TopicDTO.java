@@ -51,6 +51,18 @@ public class TopicDTO implements EntityDTO {
         this.canonicalName = topic.deriveCanonicalName();
     }
 
+    // Used by the projection queries in TopicRepository.
+    public TopicDTO(Long id, String name, TopicKind kind, String description, Boolean isPublic, Long group, String groupName) {
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.description = description;
+        this.isPublic = isPublic;
+        this.group = group;
+        this.groupName = groupName;
+        this.canonicalName = kind + "." + group + "." + name;
+    }
+
     public Long getId() {
         return id;
     }
@@ -14,39 +14,63 @@
 package io.unityfoundation.dds.permissions.manager.model.topic;
 
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.search.SearchDocument;
 
 import javax.validation.constraints.NotNull;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TopicRepository extends PageableRepository<Topic, Long> {
 
-    Page<Topic> findAllByPermissionsGroupIdIn(List<Long> groupIds, Pageable pageable);
+    // List pages select straight into TopicDTO. The root alias is the one Micronaut uses when appending the Pageable's sort.
+    String SELECT_DTO = "SELECT new io.unityfoundation.dds.permissions.manager.model.topic.TopicDTO(topic_.id, topic_.name, topic_.kind, " +
+            "topic_.description, topic_.makePublic, permissionsGroup_.id, permissionsGroup_.name) FROM Topic topic_ JOIN topic_.permissionsGroup permissionsGroup_";
+    String SELECT_COUNT = "SELECT COUNT(topic_) FROM Topic topic_ JOIN topic_.permissionsGroup permissionsGroup_";
+    String FILTER = "(LOWER(topic_.name) LIKE LOWER(CONCAT('%', :filter, '%')) OR LOWER(topic_.description) LIKE LOWER(CONCAT('%', :filter, '%')) " +
+            "OR LOWER(permissionsGroup_.name) LIKE LOWER(CONCAT('%', :filter, '%')))";
+    // Keyset pages continue after the last (name, id) returned.
+    String AFTER = "(topic_.name > :afterName OR (topic_.name = :afterName AND topic_.id > :afterId)) ORDER BY topic_.name, topic_.id";
 
-    Page<Topic> findAllByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(String topic, String topicDescription, String group, Pageable pageable);
+    @Query(value = SELECT_DTO, countQuery = SELECT_COUNT)
+    Page<TopicDTO> findAllTopicDTOs(Pageable pageable);
 
-    List<Long> findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(String topic,String topicDescription, String group);
+    @Query(value = SELECT_DTO + " WHERE permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE permissionsGroup_.id IN (:groupIds)")
+    Page<TopicDTO> findTopicDTOsByGroupIdIn(List<Long> groupIds, Pageable pageable);
 
-    Page<Topic> findAllByIdInAndPermissionsGroupIdIn(List<Long> all, List<Long> groups, Pageable pageable);
+    @Query(value = SELECT_DTO + " WHERE " + FILTER, countQuery = SELECT_COUNT + " WHERE " + FILTER)
+    Page<TopicDTO> findTopicDTOsByFilter(String filter, Pageable pageable);
+
+    @Query(value = SELECT_DTO + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds)",
+            countQuery = SELECT_COUNT + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds)")
+    Page<TopicDTO> findTopicDTOsByFilterAndGroupIdIn(String filter, List<Long> groupIds, Pageable pageable);
+
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND " + AFTER)
+    List<TopicDTO> findTopicDTOsByFilterAfter(String filter, String afterName, Long afterId, Pageable pageable);
+
+    @Query(SELECT_DTO + " WHERE " + FILTER + " AND permissionsGroup_.id IN (:groupIds) AND " + AFTER)
+    List<TopicDTO> findTopicDTOsByFilterAndGroupIdInAfter(String filter, List<Long> groupIds, String afterName, Long afterId, Pageable pageable);
 
     Optional<Topic> findByNameAndPermissionsGroup(@NotNull @NonNull String name,
                                                   @NotNull @NonNull Group group);
 
     List<Long> findIdByPermissionsGroupIdIn(List<Long> groups);
 
-    Page<Topic> findAllByMakePublicTrue(Pageable pageable);
-
-    List<Topic> findTop50ByMakePublicTrue();
-
-    List<Long> findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCase(String topic, String topicDescription);
+    @Join("permissionsGroup")
+    List<Topic> findByPermissionsGroupIdIn(Collection<Long> groupIds);
 
-    Page<Topic> findByMakePublicTrueAndIdIn(List<Long> entityIds, Pageable pageable);
+    @Join("permissionsGroup")
+    List<Topic> findByIdIn(Collection<Long> ids);
 
-    List<Topic> findTop50ByMakePublicTrueAndIdIn(List<Long> secondEntityIds);
+    @Query("SELECT new io.unityfoundation.dds.permissions.manager.search.SearchDocument('TOPIC', t.id, t.name, t.description, t.makePublic) FROM Topic t")
+    List<SearchDocument> findSearchDocuments();
 }
@@ -21,11 +21,15 @@ import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.security.authentication.AuthenticationException;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.model.CursorPage;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+import io.unityfoundation.dds.permissions.manager.model.KeysetCursor;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionService;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
 import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.search.SearchIndex;
 import io.unityfoundation.dds.permissions.manager.security.SecurityUtil;
 import jakarta.inject.Singleton;
 
@@ -41,41 +45,36 @@ public class TopicService {
     private final GroupUserService groupUserService;
     private final GroupRepository groupRepository;
     private final ApplicationPermissionService applicationPermissionService;
+    private final SearchIndex searchIndex;
 
-    public TopicService(TopicRepository topicRepository, SecurityUtil securityUtil, GroupUserService groupUserService, GroupRepository groupRepository, ApplicationPermissionService applicationPermissionService) {
+    public TopicService(TopicRepository topicRepository, SecurityUtil securityUtil, GroupUserService groupUserService, GroupRepository groupRepository, ApplicationPermissionService applicationPermissionService,
+                        SearchIndex searchIndex) {
         this.topicRepository = topicRepository;
         this.securityUtil = securityUtil;
         this.groupUserService = groupUserService;
         this.groupRepository = groupRepository;
         this.applicationPermissionService = applicationPermissionService;
+        this.searchIndex = searchIndex;
     }
 
     public Page<TopicDTO> findAll(Pageable pageable, String filter, Long groupId) {
-        return getTopicPage(pageable, filter, groupId).map(TopicDTO::new);
-    }
-
-    private Page<Topic> getTopicPage(Pageable pageable, String filter, Long groupId) {
-
         if(!pageable.isSorted()) {
             pageable = pageable.order("name").order("permissionsGroup.name");
         }
 
-        List<Long> all;
         if (securityUtil.isCurrentUserAdmin()) {
             if (filter == null) {
                 if (groupId == null) {
-                    return topicRepository.findAll(pageable);
+                    return topicRepository.findAllTopicDTOs(pageable);
                 }
-                return topicRepository.findAllByPermissionsGroupIdIn(List.of(groupId), pageable);
+                return topicRepository.findTopicDTOsByGroupIdIn(List.of(groupId), pageable);
             }
 
             if (groupId == null) {
-                return topicRepository.findAllByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(filter, filter, filter, pageable);
+                return topicRepository.findTopicDTOsByFilter(filter, pageable);
             }
 
-            all = topicRepository.findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(filter, filter, filter);
-
-            return topicRepository.findAllByIdInAndPermissionsGroupIdIn(all, List.of(groupId), pageable);
+            return topicRepository.findTopicDTOsByFilterAndGroupIdIn(filter, List.of(groupId), pageable);
         } else {
             User user = securityUtil.getCurrentlyAuthenticatedUser().get();
             List<Long> groups = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
@@ -90,16 +89,39 @@ public class TopicService {
             }
 
             if (filter == null) {
-                return topicRepository.findAllByPermissionsGroupIdIn(groups, pageable);
+                return topicRepository.findTopicDTOsByGroupIdIn(groups, pageable);
             }
 
-            all = topicRepository.findIdByNameContainsIgnoreCaseOrDescriptionContainsIgnoreCaseOrPermissionsGroupNameContainsIgnoreCase(filter, filter, filter);
-            if (all.isEmpty()) {
-                return Page.empty();
+            return topicRepository.findTopicDTOsByFilterAndGroupIdIn(filter, groups, pageable);
+        }
+    }
+
+    // Keyset mode: ordered by name and id, no count. An empty filter matches every topic.
+    public CursorPage<TopicDTO> findAllAfter(String cursor, int size, String filter, Long groupId) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        String text = filter == null ? "" : filter;
+
+        List<TopicDTO> rows;
+        if (securityUtil.isCurrentUserAdmin()) {
+            rows = groupId == null ?
+                    topicRepository.findTopicDTOsByFilterAfter(text, after.getKey(), after.getId(), CursorPage.fetch(size)) :
+                    topicRepository.findTopicDTOsByFilterAndGroupIdInAfter(text, List.of(groupId), after.getKey(), after.getId(), CursorPage.fetch(size));
+        } else {
+            User user = securityUtil.getCurrentlyAuthenticatedUser().get();
+            List<Long> groups = groupUserService.getAllGroupsUserIsAMemberOf(user.getId());
+
+            if (groups.isEmpty() || (groupId != null && !groups.contains(groupId))) {
+                return CursorPage.empty(size);
             }
 
-            return topicRepository.findAllByIdInAndPermissionsGroupIdIn(all, groups, pageable);
+            if (groupId != null) {
+                groups = List.of(groupId);
+            }
+
+            rows = topicRepository.findTopicDTOsByFilterAndGroupIdInAfter(text, groups, after.getKey(), after.getId(), CursorPage.fetch(size));
         }
+
+        return CursorPage.of(rows, size, TopicDTO::getName, TopicDTO::getId);
     }
 
     public MutableHttpResponse<?> save(TopicDTO topicDTO) {
@@ -173,6 +195,7 @@ public class TopicService {
         applicationPermissionService.deleteAllByTopic(topic);
 
         topicRepository.deleteById(id);
+        searchIndex.remove(DPMEntity.TOPIC, id);
         return HttpResponse.seeOther(URI.create("/api/topics"));
     }
 
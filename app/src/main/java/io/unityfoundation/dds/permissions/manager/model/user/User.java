@@ -15,12 +15,16 @@ package io.unityfoundation.dds.permissions.manager.model.user;
 
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.annotation.DateUpdated;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 
 @Entity
 @Table(name = "permissions_user")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
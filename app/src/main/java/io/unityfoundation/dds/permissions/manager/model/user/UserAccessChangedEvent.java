@@ -0,0 +1,42 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.model.user;
+
+// Published whenever a user gains or loses super admin, or is deleted.
+public class UserAccessChangedEvent {
+
+    private final String email;
+    private final boolean admin;
+    private final boolean removed;
+
+    public UserAccessChangedEvent(String email, boolean admin, boolean removed) {
+        this.email = email;
+        this.admin = admin;
+        this.removed = removed;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    // Whether the user is a super admin once the change commits.
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    // True once the user no longer exists, so none of its sessions may continue.
+    public boolean isRemoved() {
+        return removed;
+    }
+}
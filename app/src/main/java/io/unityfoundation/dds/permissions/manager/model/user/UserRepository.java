@@ -18,11 +18,14 @@ import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends PageableRepository<User, Long> {
+    // Not query cached: its admin flag and permissionsLastUpdated are what decide whether a token's claims still hold.
     Optional<User> findByEmail(String email);
     Page<User> findByAdminTrue(Pageable pageable);
+    List<String> findEmailByAdminTrue();
     Page<User> findByAdminTrueAndEmailContainsIgnoreCase(String email, Pageable pageable);
 }
@@ -13,6 +13,7 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.model.user;
 
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
@@ -21,6 +22,7 @@ import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupMembershipChangedEvent;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUser;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
 import io.unityfoundation.dds.permissions.manager.security.SecurityUtil;
@@ -39,12 +41,18 @@ public class UserService {
     private final SecurityUtil securityUtil;
     private final UserRepository userRepository;
     private final GroupUserService groupUserService;
+    private final ApplicationEventPublisher<GroupMembershipChangedEvent> membershipEventPublisher;
+    private final ApplicationEventPublisher<UserAccessChangedEvent> accessEventPublisher;
     private static final Logger LOG = LoggerFactory.getLogger(UserService.class);
 
-    public UserService(SecurityUtil securityUtil, UserRepository userRepository, GroupUserService groupUserService) {
+    public UserService(SecurityUtil securityUtil, UserRepository userRepository, GroupUserService groupUserService,
+                       ApplicationEventPublisher<GroupMembershipChangedEvent> membershipEventPublisher,
+                       ApplicationEventPublisher<UserAccessChangedEvent> accessEventPublisher) {
         this.securityUtil = securityUtil;
         this.userRepository = userRepository;
         this.groupUserService = groupUserService;
+        this.membershipEventPublisher = membershipEventPublisher;
+        this.accessEventPublisher = accessEventPublisher;
     }
 
     @Transactional
@@ -98,6 +106,7 @@ public class UserService {
             user = userRepository.update(user);
             LOG.info(user.getEmail() + " is now a super admin");
         }
+        accessEventPublisher.publishEvent(new UserAccessChangedEvent(user.getEmail(), true, false));
 
         return HttpResponse.ok(new AdminDTO(user.getId(), user.getEmail()));
     }
@@ -112,8 +121,11 @@ public class UserService {
 
     @Transactional
     public void deleteById(Long id) {
+        Optional<String> email = userRepository.findById(id).map(User::getEmail);
         removeUserFromGroups(id);
         userRepository.deleteById(id);
+        membershipEventPublisher.publishEvent(new GroupMembershipChangedEvent(id));
+        email.ifPresent(deleted -> accessEventPublisher.publishEvent(new UserAccessChangedEvent(deleted, false, true)));
     }
 
     @Transactional(Transactional.TxType.REQUIRES_NEW)
@@ -133,12 +145,14 @@ public class UserService {
 
         LOG.info(user.getEmail() + " is no longer a super admin");
 
-        if (user.isAdmin() && groupUserService.countMembershipsByUserId(id) == 0) {
+        boolean removed = user.isAdmin() && groupUserService.countMembershipsByUserId(id) == 0;
+        if (removed) {
             userRepository.delete(user);
         } else {
             user.setAdmin(false);
             userRepository.update(user);
         }
+        accessEventPublisher.publishEvent(new UserAccessChangedEvent(user.getEmail(), false, removed));
 
         return true;
     }
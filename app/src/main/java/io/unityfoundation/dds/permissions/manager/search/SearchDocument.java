@@ -0,0 +1,63 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.search;
+
+import io.micronaut.core.annotation.Introspected;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+
+/**
+ * The searchable fields of a group, topic or application as held by a {@link SearchIndex}.
+ */
+@Introspected
+public final class SearchDocument {
+
+    private final DPMEntity type;
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final boolean isPublic;
+
+    // Used by the projection queries that feed SearchIndex.rebuild().
+    public SearchDocument(String type, Long id, String name, String description, Boolean isPublic) {
+        this(DPMEntity.valueOf(type), id, name, description, Boolean.TRUE.equals(isPublic));
+    }
+
+    public SearchDocument(DPMEntity type, Long id, String name, String description, boolean isPublic) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.isPublic = isPublic;
+    }
+
+    public DPMEntity getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+}
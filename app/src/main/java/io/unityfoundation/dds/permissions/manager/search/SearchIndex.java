@@ -0,0 +1,47 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.search;
+
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+
+import java.util.Set;
+
+/**
+ * Answers universal search over the public groups, topics and applications. The default is the
+ * in-memory {@link TrigramSearchIndex}; another backend (e.g. database full-text) can replace it
+ * with {@code @Replaces(SearchIndex.class)}.
+ */
+public interface SearchIndex {
+
+    /**
+     * Adds the document or replaces the one with the same type and id.
+     */
+    void index(SearchDocument document);
+
+    void remove(DPMEntity type, Long id);
+
+    /**
+     * Reloads every document from the database, for changes made without entity events (bulk
+     * deletes, other instances).
+     */
+    void rebuild();
+
+    /**
+     * Public documents of the given types whose name or description contains the query, best
+     * matches first. A blank query matches every public document.
+     */
+    Page<SearchDocument> search(String query, Set<DPMEntity> types, Pageable pageable);
+}
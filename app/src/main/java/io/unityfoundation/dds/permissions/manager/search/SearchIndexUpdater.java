@@ -0,0 +1,71 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.search;
+
+import io.micronaut.data.annotation.event.PostPersist;
+import io.micronaut.data.annotation.event.PostUpdate;
+import io.micronaut.data.event.EntityEventContext;
+import io.micronaut.data.event.EntityEventListener;
+import io.micronaut.data.model.runtime.RuntimePersistentEntity;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+import io.unityfoundation.dds.permissions.manager.model.application.Application;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
+import jakarta.inject.Singleton;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Keeps the {@link SearchIndex} current as groups, topics and applications are saved. Deletes are
+ * bulk statements without entity events, so the services remove those documents themselves.
+ */
+@Singleton
+public class SearchIndexUpdater implements EntityEventListener<Object> {
+
+    private final SearchIndex searchIndex;
+
+    public SearchIndexUpdater(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public boolean supports(RuntimePersistentEntity<Object> entity, Class<? extends Annotation> eventType) {
+        Class<?> type = entity.getIntrospection().getBeanType();
+        return (eventType == PostPersist.class || eventType == PostUpdate.class)
+                && (type == Group.class || type == Topic.class || type == Application.class);
+    }
+
+    @Override
+    public void postPersist(EntityEventContext<Object> context) {
+        index(context.getEntity());
+    }
+
+    @Override
+    public void postUpdate(EntityEventContext<Object> context) {
+        index(context.getEntity());
+    }
+
+    private void index(Object entity) {
+        if (entity instanceof Group) {
+            Group group = (Group) entity;
+            searchIndex.index(new SearchDocument(DPMEntity.GROUP, group.getId(), group.getName(), group.getDescription(), group.getMakePublic()));
+        } else if (entity instanceof Topic) {
+            Topic topic = (Topic) entity;
+            searchIndex.index(new SearchDocument(DPMEntity.TOPIC, topic.getId(), topic.getName(), topic.getDescription(), topic.getMakePublic()));
+        } else if (entity instanceof Application) {
+            Application application = (Application) entity;
+            searchIndex.index(new SearchDocument(DPMEntity.APPLICATION, application.getId(), application.getName(), application.getDescription(), application.getMakePublic()));
+        }
+    }
+}
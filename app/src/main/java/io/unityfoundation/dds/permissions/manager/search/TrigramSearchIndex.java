@@ -0,0 +1,255 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.search;
+
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.unityfoundation.dds.permissions.manager.model.DPMEntity;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
+import jakarta.inject.Singleton;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index keeping, for every trigram of a lowercased name or description, the documents
+ * containing it. A query of three or more characters only looks at the documents holding all of its
+ * trigrams; shorter queries scan the requested types. Matches are ranked exact name, name prefix,
+ * name substring, then description substring.
+ */
+@Singleton
+public class TrigramSearchIndex implements SearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::getScore).reversed()
+            .thenComparing(match -> match.entry.document.getType())
+            .thenComparing(match -> match.entry.name)
+            .thenComparing(match -> match.entry.document.getId());
+
+    private final GroupRepository groupRepository;
+    private final TopicRepository topicRepository;
+    private final ApplicationRepository applicationRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings();
+    // changes made while a rebuild reads the database, replayed onto what it read
+    private List<Consumer<Postings>> changesDuringRebuild;
+
+    public TrigramSearchIndex(GroupRepository groupRepository, TopicRepository topicRepository, ApplicationRepository applicationRepository) {
+        this.groupRepository = groupRepository;
+        this.topicRepository = topicRepository;
+        this.applicationRepository = applicationRepository;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        rebuild();
+    }
+
+    @Override
+    @Scheduled(fixedDelay = "${permissions-manager.search.rebuild-interval:10m}",
+            initialDelay = "${permissions-manager.search.rebuild-interval:10m}")
+    public synchronized void rebuild() {
+        withWriteLock(() -> changesDuringRebuild = new ArrayList<>());
+        Postings rebuilt = new Postings();
+        try {
+            groupRepository.findSearchDocuments().forEach(rebuilt::put);
+            topicRepository.findSearchDocuments().forEach(rebuilt::put);
+            applicationRepository.findSearchDocuments().forEach(rebuilt::put);
+        } catch (RuntimeException e) {
+            withWriteLock(() -> changesDuringRebuild = null);
+            throw e;
+        }
+        withWriteLock(() -> {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            postings = rebuilt;
+        });
+    }
+
+    @Override
+    public void index(SearchDocument document) {
+        apply(postings -> postings.put(document));
+    }
+
+    @Override
+    public void remove(DPMEntity type, Long id) {
+        apply(postings -> postings.remove(type, id));
+    }
+
+    @Override
+    public Page<SearchDocument> search(String query, Set<DPMEntity> types, Pageable pageable) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+
+        List<Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = postings.match(normalized, types);
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(RANKING);
+
+        if (pageable.getSize() <= 0) {
+            pageable = Pageable.from(Math.max(pageable.getNumber(), 0), DEFAULT_PAGE_SIZE);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getSize(), matches.size());
+        List<SearchDocument> content = matches.subList(from, to).stream()
+                .map(match -> match.entry.document)
+                .collect(Collectors.toList());
+        return Page.of(content, pageable, matches.size());
+    }
+
+    private void apply(Consumer<Postings> change) {
+        withWriteLock(() -> {
+            change.accept(postings);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable runnable) {
+        lock.writeLock().lock();
+        try {
+            runnable.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static final class Entry {
+        private final SearchDocument document;
+        private final String name;
+        private final String description;
+        private final Set<String> grams;
+
+        private Entry(SearchDocument document) {
+            this.document = document;
+            this.name = document.getName() == null ? "" : document.getName().toLowerCase(Locale.ROOT);
+            this.description = document.getDescription() == null ? "" : document.getDescription().toLowerCase(Locale.ROOT);
+            this.grams = grams(name);
+            this.grams.addAll(grams(description));
+        }
+
+        private int score(String query) {
+            if (query.isEmpty()) {
+                return 1;
+            } else if (name.equals(query)) {
+                return 4;
+            } else if (name.startsWith(query)) {
+                return 3;
+            } else if (name.contains(query)) {
+                return 2;
+            }
+            return description.contains(query) ? 1 : 0;
+        }
+    }
+
+    private static final class Match {
+        private final Entry entry;
+        private final int score;
+
+        private Match(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+
+        private int getScore() {
+            return score;
+        }
+    }
+
+    private static final class Postings {
+        private final Map<DPMEntity, Map<Long, Entry>> documents = new EnumMap<>(DPMEntity.class);
+        private final Map<String, Set<Entry>> entriesByGram = new HashMap<>();
+
+        private void put(SearchDocument document) {
+            remove(document.getType(), document.getId());
+            Entry entry = new Entry(document);
+            documents.computeIfAbsent(document.getType(), type -> new HashMap<>()).put(document.getId(), entry);
+            entry.grams.forEach(gram -> entriesByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(entry));
+        }
+
+        private void remove(DPMEntity type, Long id) {
+            Map<Long, Entry> byId = documents.get(type);
+            Entry entry = byId == null ? null : byId.remove(id);
+            if (entry == null) {
+                return;
+            }
+            for (String gram : entry.grams) {
+                Set<Entry> entries = entriesByGram.get(gram);
+                entries.remove(entry);
+                if (entries.isEmpty()) {
+                    entriesByGram.remove(gram);
+                }
+            }
+        }
+
+        private List<Match> match(String query, Set<DPMEntity> types) {
+            List<Match> matches = new ArrayList<>();
+            for (Entry entry : candidates(query, types)) {
+                if (!entry.document.isPublic() || !types.contains(entry.document.getType())) {
+                    continue;
+                }
+                int score = entry.score(query);
+                if (score > 0) {
+                    matches.add(new Match(entry, score));
+                }
+            }
+            return matches;
+        }
+
+        private Collection<Entry> candidates(String query, Set<DPMEntity> types) {
+            if (query.length() < GRAM_LENGTH) {
+                return types.stream()
+                        .flatMap(type -> documents.getOrDefault(type, Map.of()).values().stream())
+                        .collect(Collectors.toList());
+            }
+
+            List<Set<Entry>> postingLists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Entry> entries = entriesByGram.get(gram);
+                if (entries == null) {
+                    return List.of();
+                }
+                postingLists.add(entries);
+            }
+            postingLists.sort(Comparator.comparingInt(Set::size));
+            List<Set<Entry>> others = postingLists.subList(1, postingLists.size());
+            return postingLists.get(0).stream()
+                    .filter(entry -> others.stream().allMatch(entries -> entries.contains(entry)))
+                    .collect(Collectors.toList());
+        }
+    }
+}
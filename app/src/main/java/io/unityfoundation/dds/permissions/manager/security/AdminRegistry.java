@@ -0,0 +1,105 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import io.unityfoundation.dds.permissions.manager.model.user.UserAccessChangedEvent;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import jakarta.inject.Singleton;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emails of the super admins. Loaded at startup, kept current from the UserAccessChangedEvents that
+ * UserService publishes, applied only once their transaction commits, and reloaded on a schedule to
+ * pick up changes made by other instances. Only a hit is trusted: callers fall back to
+ * the database for anyone not in the set, so a user promoted elsewhere is never denied, and a
+ * demotion elsewhere is seen within refresh-interval.
+ */
+@Singleton
+public class AdminRegistry {
+
+    private final UserRepository userRepository;
+    private volatile Set<String> admins = ConcurrentHashMap.newKeySet();
+    // bumped by every removal, so a reload that read the table before it does not bring the admin back
+    private final AtomicLong removals = new AtomicLong();
+
+    public AdminRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        reload();
+    }
+
+    @Scheduled(fixedDelay = "${permissions-manager.admins.refresh-interval:60s}",
+            initialDelay = "${permissions-manager.admins.refresh-interval:60s}")
+    public void reload() {
+        long removalsBefore = removals.get();
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        loaded.addAll(userRepository.findEmailByAdminTrue());
+        synchronized (this) {
+            if (removalsBefore == removals.get()) {
+                admins = loaded;
+            }
+        }
+    }
+
+    // After commit only: a promotion that rolls back never grants anything, and a removal cannot be
+    // undone by a reload that read the row before the demotion committed.
+    @TransactionalEventListener
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        if (event.isAdmin()) {
+            add(event.getEmail());
+        } else {
+            remove(event.getEmail());
+        }
+    }
+
+    public boolean isAdmin(String email) {
+        return email != null && admins.contains(email);
+    }
+
+    public void add(String email) {
+        admins.add(email);
+    }
+
+    public synchronized void remove(String email) {
+        removals.incrementAndGet();
+        admins.remove(email);
+    }
+
+    public Map<String, Object> checkConsistency() {
+        Set<String> expected = new TreeSet<>(userRepository.findEmailByAdminTrue());
+        Set<String> actual = new TreeSet<>(admins);
+
+        Set<String> missing = new TreeSet<>(expected);
+        missing.removeAll(actual);
+        Set<String> stale = new TreeSet<>(actual);
+        stale.removeAll(expected);
+
+        Map<String, Object> report = new TreeMap<>();
+        report.put("consistent", missing.isEmpty() && stale.isEmpty());
+        report.put("admins", actual.size());
+        report.put("missing", missing);
+        report.put("stale", stale);
+        return report;
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Write;
+
+import java.util.Map;
+
+// Compares the in-memory super admin set with the database at /admins; a POST reloads it first.
+@Endpoint(id = "admins")
+public class AdminsEndpoint {
+
+    private final AdminRegistry adminRegistry;
+
+    public AdminsEndpoint(AdminRegistry adminRegistry) {
+        this.adminRegistry = adminRegistry;
+    }
+
+    @Read
+    public Map<String, Object> consistency() {
+        return adminRegistry.checkConsistency();
+    }
+
+    @Write
+    public Map<String, Object> reload() {
+        adminRegistry.reload();
+        return adminRegistry.checkConsistency();
+    }
+}
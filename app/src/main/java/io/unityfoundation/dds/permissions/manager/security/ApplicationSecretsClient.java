@@ -13,16 +13,24 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.security;
 
-import com.google.cloud.secretmanager.v1.*;
-import io.micronaut.context.annotation.Property;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Singleton
 public class ApplicationSecretsClient {
@@ -33,145 +41,97 @@ public class ApplicationSecretsClient {
     public static final String PERMISSIONS_CA_KEY = "permissions_ca_key_pem";
     public static final String GOVERNANCE_FILE = "governance_xml_p7s";
 
-    @Property(name = "gcp.project-id")
-    protected String project;
-    @Property(name = "gcp.credentials.enabled")
-    protected Boolean enabled;
-    private String identityCACert;
-    private String identityCACertETag;
-    private String identityCAKey;
-    private String identityCAKeyETag;
-    private String permissionsCACert;
-    private String permissionsCACertETag;
-    private String permissionsCAKey;
-    private String permissionsCAKeyETag;
-    private String governanceFile;
-    private String governanceFileETag;
+    private static final List<String> SECRET_FILES = List.of(
+            IDENTITY_CA_CERT, IDENTITY_CA_KEY, PERMISSIONS_CA_CERT, PERMISSIONS_CA_KEY, GOVERNANCE_FILE);
 
     private static final Logger LOG = LoggerFactory.getLogger(ApplicationSecretsClient.class);
 
-    public ApplicationSecretsClient() {
+    private final SecretSource secretSource;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<SecretsSnapshot> snapshot = new AtomicReference<>(SecretsSnapshot.EMPTY);
+    private final AtomicLong lastRefresh = new AtomicLong();
+
+    public ApplicationSecretsClient(@Nullable SecretSource secretSource, MeterRegistry meterRegistry) {
+        this.secretSource = secretSource;
+        this.meterRegistry = meterRegistry;
+        // how stale the secrets being served are; grows without bound while the backend is failing
+        Gauge.builder("dpm.secrets.age", lastRefresh,
+                        last -> last.get() == 0 ? Double.NaN : (System.currentTimeMillis() - last.get()) / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
     }
 
     @EventListener
-    public void onStartup(StartupEvent event) throws IOException {
-
-        if (project != null && enabled != null && enabled) {
-            try {
-                SecretManagerServiceClient client = SecretManagerServiceClient.create();
-                this.identityCACert =  getLatestSecret(client, project, IDENTITY_CA_CERT);
-                this.identityCACertETag =  getLatestSecretETag(client, project, IDENTITY_CA_CERT);
-                this.identityCAKey =  getLatestSecret(client, project, IDENTITY_CA_KEY);
-                this.identityCAKeyETag =  getLatestSecretETag(client, project, IDENTITY_CA_KEY);
-                this.permissionsCACert = getLatestSecret(client, project, PERMISSIONS_CA_CERT);
-                this.permissionsCACertETag = getLatestSecretETag(client, project, PERMISSIONS_CA_CERT);
-                this.permissionsCAKey = getLatestSecret(client, project, PERMISSIONS_CA_KEY);
-                this.permissionsCAKeyETag = getLatestSecretETag(client, project, PERMISSIONS_CA_KEY);
-                this.governanceFile = getLatestSecret(client, project, GOVERNANCE_FILE);
-                this.governanceFileETag = getLatestSecretETag(client, project, GOVERNANCE_FILE);
-                client.close();
-            } catch (Exception e) {
-                LOG.error("Could not get secrets from GCP", e);
-                // all or nothing
-                this.identityCACert = null;
-                this.identityCACertETag = null;
-                this.identityCAKey = null;
-                this.identityCAKeyETag = null;
-                this.permissionsCACert = null;
-                this.permissionsCACertETag = null;
-                this.permissionsCAKey = null;
-                this.permissionsCAKeyETag = null;
-                this.governanceFile = null;
-                this.governanceFileETag = null;
+    public void onStartup(StartupEvent event) {
+        refresh();
+    }
+
+    // Request threads only ever read the current snapshot; all calls to the secret backend happen here.
+    @Scheduled(fixedDelay = "${permissions-manager.secrets.refresh-interval:60s}",
+            initialDelay = "${permissions-manager.secrets.refresh-interval:60s}")
+    public synchronized void refresh() {
+        if (secretSource == null) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        SecretsSnapshot current = snapshot.get();
+        Map<String, String> secrets = new HashMap<>();
+        Map<String, String> etags = new HashMap<>();
+        boolean changed = false;
+        try {
+            for (String file : SECRET_FILES) {
+                String latestETag = secretSource.getLatestSecretETag(file);
+                Optional<String> cached = current.getSecret(file);
+                if (cached.isPresent() && Objects.equals(latestETag, current.getETag(file))) {
+                    secrets.put(file, cached.get());
+                } else {
+                    secrets.put(file, secretSource.getLatestSecret(file));
+                    meterRegistry.counter("dpm.secrets.fetched", "secret", file).increment();
+                    changed = true;
+                }
+                etags.put(file, latestETag);
             }
+        } catch (Exception e) {
+            // all or nothing: keep serving the previous snapshot
+            LOG.error("Could not refresh secrets", e);
+            sample.stop(meterRegistry.timer("dpm.secrets.refresh", "outcome", "failed"));
+            return;
         }
-    }
 
-    private String getLatestSecret(SecretManagerServiceClient client, String project, String file) {
-        AccessSecretVersionResponse response = client.accessSecretVersion(AccessSecretVersionRequest
-                .newBuilder()
-                .setName(SecretVersionName.of(project, file, "latest").toString())
-                .build());
-        return response.getPayload().getData().toStringUtf8();
+        if (changed) {
+            snapshot.set(new SecretsSnapshot(secrets, etags));
+            LOG.info("Secrets refreshed");
+        }
+        lastRefresh.set(System.currentTimeMillis());
+        sample.stop(meterRegistry.timer("dpm.secrets.refresh", "outcome", changed ? "updated" : "unchanged"));
     }
 
-    public String getLatestSecretETag(SecretManagerServiceClient client, String project, String file) {
-        SecretVersion secretVersion = client.getSecretVersion(GetSecretVersionRequest
-                .newBuilder()
-                .setName(SecretVersionName.of(project, file, "latest").toString())
-                .build());
-        return secretVersion.getEtag();
+    public SecretsSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     public Optional<String> getIdentityCACert() {
-        return Optional.ofNullable(identityCACert);
+        return getSnapshot().getSecret(IDENTITY_CA_CERT);
     }
 
     public Optional<String> getPermissionsCACert() {
-        return Optional.ofNullable(permissionsCACert);
+        return getSnapshot().getSecret(PERMISSIONS_CA_CERT);
     }
 
     public Optional<String> getGovernanceFile() {
-        return Optional.ofNullable(governanceFile);
+        return getSnapshot().getSecret(GOVERNANCE_FILE);
     }
 
     public Optional<String> getIdentityCAKey() {
-        return Optional.ofNullable(identityCAKey);
+        return getSnapshot().getSecret(IDENTITY_CA_KEY);
     }
 
     public Optional<String> getPermissionsCAKey() {
-        return Optional.ofNullable(permissionsCAKey);
-    }
-
-    public boolean hasCachedFileBeenUpdated(String file) {
-        String etag = getCorrespondingEtag(file);
-
-        try(SecretManagerServiceClient client = SecretManagerServiceClient.create()) {
-            String latestSecretETag = getLatestSecretETag(client, project, file);
-            if (!etag.contentEquals(latestSecretETag)) {
-                setFileAndETag(file, etag, getLatestSecret(client, project, file));
-                return true;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        return false;
-    }
-
-    private void setFileAndETag(String file, String etag, String latestSecret) {
-        switch(file) {
-            case IDENTITY_CA_CERT:
-                this.identityCACert = latestSecret;
-                this.identityCACertETag = etag;
-            case IDENTITY_CA_KEY:
-                this.identityCAKey = latestSecret;
-                this.identityCAKeyETag = etag;
-            case PERMISSIONS_CA_CERT:
-                this.permissionsCACert = latestSecret;
-                this.permissionsCACertETag = etag;
-            case PERMISSIONS_CA_KEY:
-                this.permissionsCAKey = latestSecret;
-                this.permissionsCAKeyETag = etag;
-            case GOVERNANCE_FILE:
-                this.governanceFile = latestSecret;
-                this.governanceFileETag = etag;
-        }
+        return getSnapshot().getSecret(PERMISSIONS_CA_KEY);
     }
 
     public String getCorrespondingEtag(String file) {
-        switch(file) {
-            case IDENTITY_CA_CERT:
-                return this.identityCACertETag;
-            case IDENTITY_CA_KEY:
-                return this.identityCAKeyETag;
-            case PERMISSIONS_CA_CERT:
-                return this.permissionsCACertETag;
-            case PERMISSIONS_CA_KEY:
-                return this.permissionsCAKeyETag;
-            case GOVERNANCE_FILE:
-                return this.governanceFileETag;
-        }
-        return null;
+        return getSnapshot().getETag(file);
     }
 }
@@ -70,7 +70,7 @@ public class AuthenticationProviderUserPassword implements AuthenticationProvide
         } else {
             // application login
             try {
-                return Publishers.just(applicationService.passwordMatches(Long.valueOf(identity), password));
+                return Publishers.fromCompletableFuture(applicationService.passwordMatches(Long.valueOf(identity), password));
             } catch (NumberFormatException numberFormatException) {
                 Publishers.just(AuthenticationResponse.exception("Incorrect Application Id format."));
             }
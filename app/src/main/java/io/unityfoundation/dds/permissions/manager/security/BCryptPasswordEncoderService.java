@@ -31,19 +31,20 @@ public class BCryptPasswordEncoderService {
     @Property(name = "permissions-manager.application.passphrase.salt")
     protected String salt;
 
-    private Argon2BytesGenerator generator;
+    private Argon2Parameters parameters;
 
     @PostConstruct
-    private Argon2BytesGenerator getGenerator() {
-        Argon2Parameters.Builder builder = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
-                .withSalt(salt.getBytes(StandardCharsets.UTF_8));
-
-        generator = new Argon2BytesGenerator();
-        generator.init(builder.build());
-        return generator;
+    void init() {
+        parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withSalt(salt.getBytes(StandardCharsets.UTF_8))
+                .build();
     }
 
+    // A generator holds its working memory between calls, so each derivation gets its own.
     public String encode(@NotBlank @NonNull String rawPassword) {
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(parameters);
+
         byte[] result = new byte[32];
         generator.generateBytes(rawPassword.getBytes(StandardCharsets.UTF_8), result);
 
@@ -0,0 +1,109 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.openssl.PEMKeyPair;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.Store;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+/**
+ * A CA certificate and key parsed once, together with everything derived from them that
+ * does not change between requests. Instances are immutable and safe to share.
+ */
+public final class CertificateAuthority {
+
+    private final X509Certificate certificate;
+    private final X509CertificateHolder certificateHolder;
+    private final PrivateKey privateKey;
+    private final AuthorityKeyIdentifier authorityKeyIdentifier;
+    private final Store certStore;
+    private final JcaContentSignerBuilder contentSignerBuilder;
+    private final DigestCalculatorProvider digestCalculatorProvider;
+
+    public CertificateAuthority(X509Certificate certificate, PrivateKey privateKey, String signatureAlgorithm)
+            throws GeneralSecurityException, IOException, OperatorCreationException {
+        this.certificate = certificate;
+        this.certificateHolder = new X509CertificateHolder(certificate.getEncoded());
+        this.privateKey = privateKey;
+        this.authorityKeyIdentifier = new JcaX509ExtensionUtils().createAuthorityKeyIdentifier(certificate);
+        this.certStore = new JcaCertStore(List.of(certificate));
+        this.contentSignerBuilder = new JcaContentSignerBuilder(signatureAlgorithm);
+        this.digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+    }
+
+    public static CertificateAuthority parse(String certificatePem, String privateKeyPem, String signatureAlgorithm)
+            throws GeneralSecurityException, IOException, OperatorCreationException {
+        return new CertificateAuthority(readCertificate(certificatePem), readPrivateKey(privateKeyPem.trim()), signatureAlgorithm);
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public X509CertificateHolder getCertificateHolder() {
+        return certificateHolder;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    public AuthorityKeyIdentifier getAuthorityKeyIdentifier() {
+        return authorityKeyIdentifier;
+    }
+
+    public Store getCertStore() {
+        return certStore;
+    }
+
+    public DigestCalculatorProvider getDigestCalculatorProvider() {
+        return digestCalculatorProvider;
+    }
+
+    // A ContentSigner wraps a stateful Signature, so every signature gets its own.
+    public ContentSigner newContentSigner() throws OperatorCreationException {
+        return contentSignerBuilder.build(privateKey);
+    }
+
+    public static X509Certificate readCertificate(String pemEncoding) throws IOException, CertificateException {
+        PEMParser parser = new PEMParser(new StringReader(pemEncoding));
+        X509CertificateHolder certHolder = (X509CertificateHolder) parser.readObject();
+        return new JcaX509CertificateConverter().getCertificate(certHolder);
+    }
+
+    public static PrivateKey readPrivateKey(String pemEncoding) throws IOException {
+        PEMParser parser = new PEMParser(new StringReader(pemEncoding));
+        PEMKeyPair pemKeyPair = (PEMKeyPair) parser.readObject();
+        return new JcaPEMKeyConverter().getPrivateKey(pemKeyPair.getPrivateKeyInfo());
+    }
+}
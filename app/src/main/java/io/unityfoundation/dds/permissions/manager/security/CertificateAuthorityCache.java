@@ -0,0 +1,83 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Singleton;
+import org.bouncycastle.operator.OperatorCreationException;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.unityfoundation.dds.permissions.manager.security.ApplicationSecretsClient.*;
+
+// Parses each CA once per secret version. An entry is replaced as soon as the ETag of
+// either its certificate or its key differs from the current secrets snapshot.
+@Singleton
+public class CertificateAuthorityCache {
+
+    public static final String IDENTITY_SIGNATURE_ALGORITHM = "SHA256WITHECDSA";
+    public static final String PERMISSIONS_SIGNATURE_ALGORITHM = "SHA1WITHECDSA";
+
+    private final ApplicationSecretsClient applicationSecretsClient;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<Entry> identityCA = new AtomicReference<>();
+    private final AtomicReference<Entry> permissionsCA = new AtomicReference<>();
+
+    public CertificateAuthorityCache(ApplicationSecretsClient applicationSecretsClient, MeterRegistry meterRegistry) {
+        this.applicationSecretsClient = applicationSecretsClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Optional<CertificateAuthority> getIdentityCA() throws GeneralSecurityException, IOException, OperatorCreationException {
+        return get("identity", identityCA, IDENTITY_CA_CERT, IDENTITY_CA_KEY, IDENTITY_SIGNATURE_ALGORITHM);
+    }
+
+    public Optional<CertificateAuthority> getPermissionsCA() throws GeneralSecurityException, IOException, OperatorCreationException {
+        return get("permissions", permissionsCA, PERMISSIONS_CA_CERT, PERMISSIONS_CA_KEY, PERMISSIONS_SIGNATURE_ALGORITHM);
+    }
+
+    private Optional<CertificateAuthority> get(String name, AtomicReference<Entry> cache, String certFile, String keyFile, String signatureAlgorithm)
+            throws GeneralSecurityException, IOException, OperatorCreationException {
+        SecretsSnapshot secrets = applicationSecretsClient.getSnapshot();
+        Optional<String> cert = secrets.getSecret(certFile);
+        Optional<String> key = secrets.getSecret(keyFile);
+        if (cert.isEmpty() || key.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String version = secrets.getETag(certFile) + ":" + secrets.getETag(keyFile);
+        Entry entry = cache.get();
+        boolean hit = entry != null && entry.version.equals(version);
+        meterRegistry.counter("dpm.secrets.ca.cache", "ca", name, "result", hit ? "hit" : "miss").increment();
+        if (!hit) {
+            // concurrent misses may both parse; either result is valid for this version
+            entry = new Entry(version, CertificateAuthority.parse(cert.get(), key.get(), signatureAlgorithm));
+            cache.set(entry);
+        }
+        return Optional.of(entry.certificateAuthority);
+    }
+
+    private static class Entry {
+        private final String version;
+        private final CertificateAuthority certificateAuthority;
+
+        private Entry(String version, CertificateAuthority certificateAuthority) {
+            this.version = version;
+            this.certificateAuthority = certificateAuthority;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// A snapshot of the crypto pool's per-stage meters and the key pair pool depth at /crypto; the meters themselves
+// are published under dpm.crypto.* at /metrics.
+@Endpoint(id = "crypto")
+public class CryptoEndpoint {
+
+    private final CryptoExecutor cryptoExecutor;
+    private final KeyPairPool keyPairPool;
+
+    public CryptoEndpoint(CryptoExecutor cryptoExecutor, KeyPairPool keyPairPool) {
+        this.cryptoExecutor = cryptoExecutor;
+        this.keyPairPool = keyPairPool;
+    }
+
+    @Read
+    public Map<String, Object> statistics() {
+        Map<String, Object> statistics = new TreeMap<>(cryptoExecutor.getStatistics());
+        statistics.put("keyPairPool", keyPairPool.getStatistics());
+        return statistics;
+    }
+}
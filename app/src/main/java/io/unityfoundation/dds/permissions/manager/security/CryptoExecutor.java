@@ -0,0 +1,200 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micronaut.context.annotation.Property;
+import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
+import io.unityfoundation.dds.permissions.manager.exception.DPMRetryLaterException;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.bouncycastle.mail.smime.SMIMEException;
+import org.bouncycastle.operator.OperatorCreationException;
+
+import javax.mail.MessagingException;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CPU-bound key generation and signing on a pool sized to the available cores, away from
+ * the I/O executor. Work that does not fit in the bounded queue is refused with a 503 so callers
+ * back off instead of piling up behind a saturated CPU.
+ * <p>
+ * Per stage, the time spent queued and running is published as the {@code dpm.crypto.queue} and
+ * {@code dpm.crypto.service} timers, the tasks waiting as the {@code dpm.crypto.queued} gauge, and refused
+ * and failed tasks as {@code dpm.crypto.rejected} and {@code dpm.crypto.failed}, all tagged by stage.
+ * The pool as a whole is published as executor.* metrics tagged name=crypto.
+ */
+@Singleton
+public class CryptoExecutor {
+
+    public static final String QUEUE_TIMER = "dpm.crypto.queue";
+    public static final String SERVICE_TIMER = "dpm.crypto.service";
+    public static final String QUEUED_GAUGE = "dpm.crypto.queued";
+    public static final String REJECTED_COUNTER = "dpm.crypto.rejected";
+    public static final String FAILED_COUNTER = "dpm.crypto.failed";
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+
+    public CryptoExecutor(MeterRegistry meterRegistry,
+                          @Property(name = "permissions-manager.crypto.threads", defaultValue = "0") int threads,
+                          @Property(name = "permissions-manager.crypto.queue-capacity", defaultValue = "64") int queueCapacity,
+                          @Property(name = "permissions-manager.crypto.retry-after", defaultValue = "5") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "crypto-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+        new ExecutorServiceMetrics(executor, "crypto", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(String stage, Callable<T> task) {
+        Stage statistics = stages.computeIfAbsent(stage, Stage::new);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        statistics.queued.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                statistics.queued.decrementAndGet();
+                statistics.queueTime.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                T result = null;
+                Throwable failure = null;
+                try {
+                    result = task.call();
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                // recorded before completion, so anyone who saw the result also sees it counted
+                statistics.serviceTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                if (failure != null) {
+                    statistics.failed.increment();
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            statistics.queued.decrementAndGet();
+            statistics.rejected.increment();
+            throw new DPMRetryLaterException(ResponseStatusCodes.APPLICATION_SIGNING_CAPACITY_EXCEEDED, retryAfterSeconds);
+        }
+        return future;
+    }
+
+    // Blocks the calling (I/O) thread until the task has run on the crypto pool.
+    public <T> T execute(String stage, Callable<T> task)
+            throws IOException, GeneralSecurityException, OperatorCreationException, MessagingException, SMIMEException {
+        CompletableFuture<T> future = submit(stage, task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + stage, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) cause;
+            } else if (cause instanceof OperatorCreationException) {
+                throw (OperatorCreationException) cause;
+            } else if (cause instanceof MessagingException) {
+                throw (MessagingException) cause;
+            } else if (cause instanceof SMIMEException) {
+                throw (SMIMEException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stageStatistics = new TreeMap<>();
+        stages.forEach((stage, statistics) -> stageStatistics.put(stage, statistics.toMap()));
+
+        Map<String, Object> result = new TreeMap<>();
+        result.put("poolSize", executor.getMaximumPoolSize());
+        result.put("activeThreads", executor.getActiveCount());
+        result.put("queueDepth", executor.getQueue().size());
+        result.put("queueCapacity", queueCapacity);
+        result.put("completedTasks", executor.getCompletedTaskCount());
+        result.put("stages", stageStatistics);
+        return result;
+    }
+
+    @PreDestroy
+    void close() {
+        executor.shutdown();
+    }
+
+    private class Stage {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Timer queueTime;
+        private final Timer serviceTime;
+        private final Counter failed;
+        private final Counter rejected;
+
+        private Stage(String name) {
+            queueTime = Timer.builder(QUEUE_TIMER).tag("stage", name).publishPercentileHistogram().register(meterRegistry);
+            serviceTime = Timer.builder(SERVICE_TIMER).tag("stage", name).publishPercentileHistogram().register(meterRegistry);
+            failed = Counter.builder(FAILED_COUNTER).tag("stage", name).register(meterRegistry);
+            rejected = Counter.builder(REJECTED_COUNTER).tag("stage", name).register(meterRegistry);
+            Gauge.builder(QUEUED_GAUGE, queued, AtomicInteger::get).tag("stage", name).register(meterRegistry);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new TreeMap<>();
+            map.put("queued", queued.get());
+            map.put("executed", serviceTime.count());
+            map.put("failed", (long) failed.count());
+            map.put("rejected", (long) rejected.count());
+            map.put("queueTime", toMap(queueTime));
+            map.put("serviceTime", toMap(serviceTime));
+            return map;
+        }
+
+        // the max decays over the registry's step, so it reflects recent tasks only
+        private Map<String, Object> toMap(Timer timer) {
+            return Map.of(
+                    "meanMillis", timer.mean(TimeUnit.MILLISECONDS),
+                    "maxMillis", timer.max(TimeUnit.MILLISECONDS)
+            );
+        }
+    }
+}
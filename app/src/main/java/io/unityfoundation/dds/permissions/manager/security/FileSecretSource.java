@@ -0,0 +1,48 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Reads each secret from a file of the same name, e.g. <directory>/identity_ca_pem.
+// Intended for local development and tests that run without GCP.
+@Singleton
+@Requires(property = "permissions-manager.secrets.directory")
+@Requires(property = "gcp.credentials.enabled", notEquals = "true")
+public class FileSecretSource implements SecretSource {
+
+    private final Path directory;
+
+    public FileSecretSource(@Property(name = "permissions-manager.secrets.directory") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    @Override
+    public String getLatestSecret(String name) throws IOException {
+        return Files.readString(directory.resolve(name), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getLatestSecretETag(String name) throws IOException {
+        Path file = directory.resolve(name);
+        return Files.getLastModifiedTime(file).toMillis() + "-" + Files.size(file);
+    }
+}
@@ -0,0 +1,60 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import com.google.cloud.secretmanager.v1.*;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+
+@Singleton
+@Requires(property = "gcp.credentials.enabled", value = StringUtils.TRUE)
+public class GcpSecretSource implements SecretSource {
+
+    private final String project;
+    // one long-lived client (and gRPC channel) shared by every refresh
+    private final SecretManagerServiceClient client;
+
+    public GcpSecretSource(@Property(name = "gcp.project-id") String project) throws IOException {
+        this.project = project;
+        this.client = SecretManagerServiceClient.create();
+    }
+
+    @Override
+    public String getLatestSecret(String name) {
+        AccessSecretVersionResponse response = client.accessSecretVersion(AccessSecretVersionRequest
+                .newBuilder()
+                .setName(SecretVersionName.of(project, name, "latest").toString())
+                .build());
+        return response.getPayload().getData().toStringUtf8();
+    }
+
+    @Override
+    public String getLatestSecretETag(String name) {
+        SecretVersion secretVersion = client.getSecretVersion(GetSecretVersionRequest
+                .newBuilder()
+                .setName(SecretVersionName.of(project, name, "latest").toString())
+                .build());
+        return secretVersion.getEtag();
+    }
+
+    @PreDestroy
+    void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,174 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Property;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Source of P-256 key pairs for application identity certificates. When enabled, key pairs are
+ * generated in the background whenever the pool drops below the low watermark, until it reaches
+ * the high watermark. A key pair leaves the pool exactly once; when the pool is empty one is
+ * generated on the caller's thread and counted as a miss.
+ */
+@Singleton
+public class KeyPairPool implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyPairPool.class);
+    private static final String CURVE = "secp256r1";
+
+    private final boolean enabled;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int refillThreads;
+    private final BlockingQueue<KeyPair> pool;
+    private final ExecutorService refillExecutor;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public KeyPairPool(@Property(name = "permissions-manager.crypto.key-pair-pool.enabled", defaultValue = "false") boolean enabled,
+                       @Property(name = "permissions-manager.crypto.key-pair-pool.low-watermark", defaultValue = "16") int lowWatermark,
+                       @Property(name = "permissions-manager.crypto.key-pair-pool.high-watermark", defaultValue = "64") int highWatermark,
+                       @Property(name = "permissions-manager.crypto.key-pair-pool.refill-threads", defaultValue = "1") int refillThreads) {
+        this.enabled = enabled;
+        this.highWatermark = Math.max(1, highWatermark);
+        this.lowWatermark = Math.min(Math.max(0, lowWatermark), this.highWatermark);
+        this.refillThreads = Math.max(1, refillThreads);
+        this.pool = new ArrayBlockingQueue<>(this.highWatermark);
+
+        if (enabled) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.refillExecutor = Executors.newFixedThreadPool(this.refillThreads, runnable -> {
+                Thread thread = new Thread(runnable, "key-pair-pool-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.refillExecutor = null;
+        }
+    }
+
+    @PostConstruct
+    void fill() {
+        if (enabled) {
+            refill();
+        }
+    }
+
+    public KeyPair take() throws GeneralSecurityException {
+        if (!enabled) {
+            return generate();
+        }
+
+        KeyPair keyPair = pool.poll();
+        if (pool.size() < lowWatermark) {
+            refill();
+        }
+
+        if (keyPair != null) {
+            hits.increment();
+            return keyPair;
+        }
+        misses.increment();
+        return generate();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new TreeMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("depth", pool.size());
+        statistics.put("lowWatermark", lowWatermark);
+        statistics.put("highWatermark", highWatermark);
+        statistics.put("hits", hits.sum());
+        statistics.put("misses", misses.sum());
+        return statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dpm.crypto.keypair.pool.size", pool, BlockingQueue::size)
+                .register(registry);
+        FunctionCounter.builder("dpm.crypto.keypair.pool.takes", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("dpm.crypto.keypair.pool.takes", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private void refill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        CountDownLatch finished = new CountDownLatch(refillThreads);
+        try {
+            for (int i = 0; i < refillThreads; i++) {
+                refillExecutor.execute(() -> {
+                    try {
+                        // offer() fails once the pool is full; that key pair is dropped, never handed out
+                        while (pool.remainingCapacity() > 0) {
+                            if (!pool.offer(generate())) {
+                                break;
+                            }
+                        }
+                    } catch (GeneralSecurityException e) {
+                        LOG.error("Could not generate a pooled key pair", e);
+                    } finally {
+                        finished.countDown();
+                        if (finished.getCount() == 0) {
+                            refilling.set(false);
+                        }
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            refilling.set(false);
+        }
+    }
+
+    private static KeyPair generate() throws GeneralSecurityException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec(CURVE));
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    @PreDestroy
+    void close() {
+        if (refillExecutor != null) {
+            refillExecutor.shutdownNow();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import io.micronaut.security.oauth2.endpoint.token.response.DefaultOpenIdAuthent
 import io.micronaut.security.oauth2.endpoint.token.response.OpenIdAuthenticationMapper;
 import io.micronaut.security.oauth2.endpoint.token.response.OpenIdClaims;
 import io.micronaut.security.oauth2.endpoint.token.response.OpenIdTokenResponse;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupRoles;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
@@ -72,8 +73,8 @@ public class PermissionsManagerAuthenticationMapper implements OpenIdAuthenticat
         HashMap<String, Object> attributes = new HashMap<>();
         List<Map<String, Object>> permissions = groupUserService.getAllPermissionsPerGroupUserIsMemberOf(user.getId());
         attributes.put("name", userEmail);
-        attributes.put("permissionsByGroup", permissions);
-        attributes.put("permissionsLastUpdated", user.getPermissionsLastUpdated());
+        attributes.put(GroupRoles.PERMISSIONS_BY_GROUP_CLAIM, permissions);
+        attributes.put(GroupRoles.PERMISSIONS_LAST_UPDATED_CLAIM, user.getPermissionsLastUpdated());
         return attributes;
     }
 }
\ No newline at end of file
@@ -16,15 +16,16 @@ package io.unityfoundation.dds.permissions.manager.security;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.annotation.DateCreated;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
+import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.time.Instant;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "refresh_token", unique = true),
+        @Index(name = "idx_refresh_token_username", columnList = "username")
+})
 class RefreshToken {
 
     @Id
@@ -35,9 +36,12 @@ class RefreshToken {
     @NotBlank
     String username;
 
+    // SHA-256 of the token, hex encoded. Kept in the original column; migration V4 narrows it and
+    // drops the rows written before hashing.
     @NonNull
     @NotBlank
-    String refreshToken;
+    @Column(name = "refresh_token", length = 64)
+    String tokenHash;
 
     @NonNull
     @NotNull
@@ -75,11 +79,20 @@ class RefreshToken {
     }
 
     @NonNull
-    public String getRefreshToken() {
-        return refreshToken;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setRefreshToken(@NonNull String refreshToken) {
-        this.refreshToken = refreshToken;
+    public void setTokenHash(@NonNull String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    @NonNull
+    public Instant getDateCreated() {
+        return dateCreated;
+    }
+
+    public void setDateCreated(@NonNull Instant dateCreated) {
+        this.dateCreated = dateCreated;
     }
 }
\ No newline at end of file
@@ -17,23 +17,39 @@ import io.micronaut.context.annotation.Property;
 import io.micronaut.context.env.Environment;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
 import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.errors.OauthErrorResponseException;
 import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
 import io.micronaut.security.token.refresh.RefreshTokenPersistence;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupMembershipChangedEvent;
+import io.unityfoundation.dds.permissions.manager.model.user.UserAccessChangedEvent;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
 import jakarta.inject.Singleton;
+import org.bouncycastle.util.encoders.Hex;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static io.micronaut.security.errors.IssuingAnAccessTokenErrorCode.INVALID_CLIENT;
 import static io.micronaut.security.errors.IssuingAnAccessTokenErrorCode.INVALID_GRANT;
 
+// Refresh tokens are stored and looked up by their SHA-256, and are valid for as long as the refresh
+// cookie. Recently validated tokens are answered from memory for cache-ttl; changing a user's super admin
+// privilege drops that user's entries, deleting the user also revokes its tokens, and changing any
+// memberships drops all entries. A scheduled sweep deletes expired and revoked rows.
 @Singleton
 public class RefreshTokenPersistenceImpl implements RefreshTokenPersistence {
 
@@ -49,11 +65,29 @@ public class RefreshTokenPersistenceImpl implements RefreshTokenPersistence {
     private final RefreshTokenRepository refreshTokenRepository;
     private final PermissionsManagerAuthenticationMapper authenticationMapper;
     private final Environment environment;
+    private final Duration maxAge;
+    private final long cacheTtlNanos;
+    private final int cacheSize;
 
-    public RefreshTokenPersistenceImpl(RefreshTokenRepository refreshTokenRepository, PermissionsManagerAuthenticationMapper authenticationMapper, Environment environment) {
+    private final Map<String, CachedToken> validatedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    // bumped by every revocation, so a validation that raced one is not cached
+    private long generation;
+
+    public RefreshTokenPersistenceImpl(RefreshTokenRepository refreshTokenRepository, PermissionsManagerAuthenticationMapper authenticationMapper, Environment environment,
+                                       @Property(name = "micronaut.security.token.refresh.cookie.cookie-max-age", defaultValue = "1d") Duration maxAge,
+                                       @Property(name = "permissions-manager.refresh-token.cache-ttl", defaultValue = "30s") Duration cacheTtl,
+                                       @Property(name = "permissions-manager.refresh-token.cache-size", defaultValue = "1000") int cacheSize) {
         this.refreshTokenRepository = refreshTokenRepository;
         this.authenticationMapper = authenticationMapper;
         this.environment = environment;
+        this.maxAge = maxAge;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.cacheSize = cacheSize;
     }
 
     @Override
@@ -62,7 +96,7 @@ public class RefreshTokenPersistenceImpl implements RefreshTokenPersistence {
         Authentication authentication = event.getAuthentication();
         if (refreshToken != null && authentication != null &&
                 authentication.getName() != null) {
-            refreshTokenRepository.save(authentication.getName(), refreshToken, false);
+            refreshTokenRepository.save(authentication.getName(), hash(refreshToken), false);
         } else {
             LOG.debug("DEBUG in persistToken");
         }
@@ -70,32 +104,134 @@ public class RefreshTokenPersistenceImpl implements RefreshTokenPersistence {
 
     @Override
     public Publisher<Authentication> getAuthentication(String refreshToken) {
-        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByRefreshToken(refreshToken);
+        String tokenHash = hash(refreshToken);
+        Authentication cached = getValidated(tokenHash);
+        if (cached != null) {
+            return Publishers.just(cached);
+        }
+
+        long validationGeneration = getGeneration();
+        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByTokenHash(tokenHash);
         if (tokenOpt.isPresent()) {
             RefreshToken token = tokenOpt.get();
             if (token.getRevoked()) {
                 throw new OauthErrorResponseException(INVALID_GRANT, "refresh token revoked", null);
+            } else if (token.getDateCreated().isBefore(Instant.now().minus(maxAge))) {
+                throw new OauthErrorResponseException(INVALID_GRANT, "refresh token expired", null);
             } else {
-                String username = token.getUsername();
-                if (username.matches("\\d+")) {
-                    // application login
-                    return Publishers.just(Authentication.build(username, List.of(UserRole.APPLICATION.toString())));
-                } else if ( testUsername != null && username.equals(testUsername)  &&
-                        (environment.getActiveNames().contains("dev") || environment.getActiveNames().contains("test")) ) {
-                        // test/dev login
-                    return Publishers.just(Authentication.build(username));
-                }
-
-                // oauth user login
-                Optional<Authentication> authentication =
-                        authenticationMapper.getAuthenticationResponse(username).getAuthentication();
-                if (authentication.isEmpty()) {
-                    throw new OauthErrorResponseException(INVALID_CLIENT);
-                }
-                return Publishers.just(authentication.get());
+                Authentication authentication = buildAuthentication(token.getUsername());
+                putValidated(tokenHash, token.getUsername(), authentication, validationGeneration);
+                return Publishers.just(authentication);
             }
         } else {
             throw new OauthErrorResponseException(INVALID_GRANT, "refresh token not found", null);
         }
     }
+
+    public void revokeByUsername(String username) {
+        refreshTokenRepository.updateByUsername(username, true);
+        evictByUsername(username);
+    }
+
+    // Revokes right away so the rest of the writing transaction sees it...
+    @EventListener
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        if (event.isRemoved()) {
+            revokeByUsername(event.getEmail());
+        } else {
+            evictByUsername(event.getEmail());
+        }
+    }
+
+    // ...and drops the entries again once it commits, in case a concurrent refresh cached the old user meanwhile.
+    @TransactionalEventListener
+    public void onUserAccessChangeCommitted(UserAccessChangedEvent event) {
+        evictByUsername(event.getEmail());
+    }
+
+    private synchronized void evictByUsername(String username) {
+        generation++;
+        validatedTokens.values().removeIf(token -> token.username.equals(username));
+    }
+
+    // A cached authentication carries the roles as of its validation, so it must not outlive a membership change.
+    @EventListener
+    public synchronized void onMembershipChanged(GroupMembershipChangedEvent event) {
+        generation++;
+        validatedTokens.clear();
+    }
+
+    @Scheduled(fixedDelay = "${permissions-manager.refresh-token.sweep-interval:1h}",
+            initialDelay = "${permissions-manager.refresh-token.sweep-interval:1h}")
+    public void sweep() {
+        long deleted = refreshTokenRepository.deleteByRevokedOrDateCreatedLessThan(true, Instant.now().minus(maxAge));
+        if (deleted > 0) {
+            LOG.debug("Deleted {} expired or revoked refresh tokens", deleted);
+        }
+    }
+
+    private Authentication buildAuthentication(String username) {
+        if (username.matches("\\d+")) {
+            // application login
+            return Authentication.build(username, List.of(UserRole.APPLICATION.toString()));
+        } else if ( testUsername != null && username.equals(testUsername)  &&
+                (environment.getActiveNames().contains("dev") || environment.getActiveNames().contains("test")) ) {
+                // test/dev login
+            return Authentication.build(username);
+        }
+
+        // oauth user login
+        Optional<Authentication> authentication =
+                authenticationMapper.getAuthenticationResponse(username).getAuthentication();
+        if (authentication.isEmpty()) {
+            throw new OauthErrorResponseException(INVALID_CLIENT);
+        }
+        return authentication.get();
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized Authentication getValidated(String tokenHash) {
+        if (cacheTtlNanos <= 0) {
+            return null;
+        }
+        CachedToken token = validatedTokens.get(tokenHash);
+        if (token == null) {
+            return null;
+        }
+        if (System.nanoTime() - token.expiresAt >= 0) {
+            validatedTokens.remove(tokenHash);
+            return null;
+        }
+        return token.authentication;
+    }
+
+    private synchronized void putValidated(String tokenHash, String username, Authentication authentication, long validationGeneration) {
+        if (cacheTtlNanos > 0 && validationGeneration == generation) {
+            validatedTokens.put(tokenHash, new CachedToken(username, authentication, System.nanoTime() + cacheTtlNanos));
+        }
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Hex.toHexString(digest.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedToken {
+        private final String username;
+        private final Authentication authentication;
+        private final long expiresAt;
+
+        private CachedToken(String username, Authentication authentication, long expiresAt) {
+            this.username = username;
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -20,6 +20,7 @@ import io.micronaut.data.repository.CrudRepository;
 import javax.transaction.Transactional;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
@@ -27,12 +28,16 @@ interface RefreshTokenRepository extends CrudRepository<RefreshToken, Long> {
 
     @Transactional
     RefreshToken save(@NonNull @NotBlank String username,
-                      @NonNull @NotBlank String refreshToken,
+                      @NonNull @NotBlank String tokenHash,
                       @NonNull @NotNull Boolean revoked);
 
     @NonNull
-    Optional<RefreshToken> findByRefreshToken(@NonNull @NotBlank String refreshToken);
+    Optional<RefreshToken> findByTokenHash(@NonNull @NotBlank String tokenHash);
 
+    @Transactional
     long updateByUsername(@NonNull @NotBlank String username,
                           boolean revoked);
+
+    @Transactional
+    long deleteByRevokedOrDateCreatedLessThan(boolean revoked, @NonNull @NotNull Instant createdBefore);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import java.io.IOException;
+
+/**
+ * Backend that holds the CA material and governance file served to applications.
+ * Only {@link ApplicationSecretsClient} talks to a source, and only from its background refresh.
+ */
+public interface SecretSource {
+
+    String getLatestSecret(String name) throws IOException;
+
+    String getLatestSecretETag(String name) throws IOException;
+}
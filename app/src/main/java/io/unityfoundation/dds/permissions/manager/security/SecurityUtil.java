@@ -13,34 +13,61 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager.security;
 
+import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.context.ServerRequestContext;
+import io.micronaut.runtime.event.annotation.EventListener;
 import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.utils.SecurityService;
 import io.unityfoundation.dds.permissions.manager.ResponseStatusCodes;
 import io.unityfoundation.dds.permissions.manager.exception.DPMException;
 import io.unityfoundation.dds.permissions.manager.model.application.Application;
 import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupMembershipChangedEvent;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupRoleIndex;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupRoles;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
 import jakarta.inject.Singleton;
 
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+import static io.unityfoundation.dds.permissions.manager.model.groupuser.GroupRoles.PERMISSIONS_BY_GROUP_CLAIM;
+import static io.unityfoundation.dds.permissions.manager.model.groupuser.GroupRoles.PERMISSIONS_LAST_UPDATED_CLAIM;
+
+// The principal and its group permissions are looked up at most once per HTTP request and kept as a
+// request attribute. Outside a request (e.g. at startup) every call queries the database.
+// Group permissions come from the token's permissionsByGroup claim while its permissionsLastUpdated
+// still equals the user's, and from the GroupRoleIndex otherwise, checked against the same stamp.
 @Singleton
 public class SecurityUtil {
 
+    private static final String PRINCIPAL_ATTRIBUTE = "dpm.principal";
+
     private final SecurityService securityService;
     private final UserRepository userRepository;
     private final ApplicationRepository applicationRepository;
+    private final GroupRoleIndex groupRoleIndex;
+    private final AdminRegistry adminRegistry;
 
-    public SecurityUtil(SecurityService securityService, UserRepository userRepository, ApplicationRepository applicationRepository) {
+    public SecurityUtil(SecurityService securityService, UserRepository userRepository, ApplicationRepository applicationRepository,
+                        GroupRoleIndex groupRoleIndex, AdminRegistry adminRegistry) {
         this.securityService = securityService;
         this.userRepository = userRepository;
         this.applicationRepository = applicationRepository;
+        this.groupRoleIndex = groupRoleIndex;
+        this.adminRegistry = adminRegistry;
     }
 
     public boolean isCurrentUserAdmin() {
-        Optional<User> currentlyAuthenticatedUser = getCurrentlyAuthenticatedUser();
+        Authentication authentication = securityService.getAuthentication().get();
+        if (adminRegistry.isAdmin(authentication.getName())) {
+            return true;
+        }
+
+        Optional<User> currentlyAuthenticatedUser = getRequestPrincipal(authentication).getUser();
         if (currentlyAuthenticatedUser.isEmpty()) {
             throw new DPMException(ResponseStatusCodes.USER_NOT_FOUND, HttpStatus.UNAUTHORIZED);
         }
@@ -49,13 +76,108 @@ public class SecurityUtil {
 
     public Optional<User> getCurrentlyAuthenticatedUser() {
         Authentication authentication = securityService.getAuthentication().get();
-        String userEmail = authentication.getName();
-        return userRepository.findByEmail(userEmail);
+        return getRequestPrincipal(authentication).getUser();
     }
 
     public Optional<Application> getCurrentlyAuthenticatedApplication() {
         Authentication authentication = securityService.getAuthentication().get();
-        String applicationId = authentication.getName();
-        return applicationRepository.findById(Long.valueOf(applicationId));
+        return getRequestPrincipal(authentication).getApplication();
+    }
+
+    // Applications authenticate with their id as the principal name, so this needs no query.
+    public Long getCurrentlyAuthenticatedApplicationId() {
+        Authentication authentication = securityService.getAuthentication().get();
+        return Long.valueOf(authentication.getName());
+    }
+
+    /**
+     * The group roles of the user making the current request, resolved once per request.
+     * Empty when there is no current request or the given user is not the one making it, in which
+     * case the caller should use the GroupRoleIndex itself.
+     */
+    public Optional<GroupRoles> getCurrentUserGroupRoles(Long userId) {
+        Optional<HttpRequest<Object>> request = ServerRequestContext.currentRequest();
+        Optional<Authentication> authentication = securityService.getAuthentication();
+        if (request.isEmpty() || authentication.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RequestPrincipal principal = getRequestPrincipal(authentication.get());
+        Optional<User> user = principal.getUser();
+        if (user.isEmpty() || !user.get().getId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(principal.getGroupRoles());
+    }
+
+    // Any membership change made by the current request means its token claims no longer apply.
+    @EventListener
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        ServerRequestContext.currentRequest()
+                .flatMap(request -> request.getAttribute(PRINCIPAL_ATTRIBUTE, RequestPrincipal.class))
+                .ifPresent(RequestPrincipal::invalidateMemberships);
+    }
+
+    private RequestPrincipal getRequestPrincipal(Authentication authentication) {
+        Optional<HttpRequest<Object>> request = ServerRequestContext.currentRequest();
+        if (request.isEmpty()) {
+            return new RequestPrincipal(authentication);
+        }
+
+        RequestPrincipal principal = request.get().getAttribute(PRINCIPAL_ATTRIBUTE, RequestPrincipal.class).orElse(null);
+        if (principal == null || principal.authentication != authentication) {
+            principal = new RequestPrincipal(authentication);
+            request.get().setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        }
+        return principal;
+    }
+
+    private class RequestPrincipal {
+        private final Authentication authentication;
+        private Optional<User> user;
+        private Optional<Application> application;
+        private GroupRoles groupRoles;
+        private boolean membershipsChanged;
+
+        private RequestPrincipal(Authentication authentication) {
+            this.authentication = authentication;
+        }
+
+        synchronized Optional<User> getUser() {
+            if (user == null) {
+                user = userRepository.findByEmail(authentication.getName());
+            }
+            return user;
+        }
+
+        synchronized Optional<Application> getApplication() {
+            if (application == null) {
+                application = applicationRepository.findById(Long.valueOf(authentication.getName()));
+            }
+            return application;
+        }
+
+        synchronized GroupRoles getGroupRoles() {
+            if (groupRoles == null) {
+                User currentUser = getUser().get();
+                Map<String, Object> claims = authentication.getAttributes();
+                Optional<GroupRoles> fromToken = Optional.empty();
+                if (!membershipsChanged && isCurrent(claims.get(PERMISSIONS_LAST_UPDATED_CLAIM), currentUser.getPermissionsLastUpdated())) {
+                    fromToken = GroupRoles.fromClaim(claims.get(PERMISSIONS_BY_GROUP_CLAIM));
+                }
+                groupRoles = fromToken.orElseGet(() -> groupRoleIndex.get(currentUser.getId(), currentUser.getPermissionsLastUpdated()));
+            }
+            return groupRoles;
+        }
+
+        synchronized void invalidateMemberships() {
+            groupRoles = null;
+            membershipsChanged = true;
+        }
+
+        private boolean isCurrent(Object tokenStamp, Long userStamp) {
+            Long stamp = tokenStamp instanceof Number ? ((Number) tokenStamp).longValue() : null;
+            return Objects.equals(stamp, userStamp);
+        }
     }
 }
@@ -0,0 +1,98 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micronaut.context.annotation.Property;
+import jakarta.inject.Singleton;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applications whose passphrase was verified within the last ttl, so a reconnect storm pays for one
+ * Argon2 derivation per application instead of one per login. Only an HMAC of the passphrase is kept,
+ * under a key that never leaves this process. Entries expire ttl after the verification, and beyond
+ * max entries the least used ones are evicted. They are dropped when this instance regenerates the
+ * passphrase or deletes the application; other instances honour the old passphrase until their entry expires.
+ */
+@Singleton
+public class VerifiedPassphraseCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Cache<Long, byte[]> entries;
+    // bumped by every invalidation, so a verification that raced one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public VerifiedPassphraseCache(@Property(name = "permissions-manager.application.passphrase.verified-cache-ttl", defaultValue = "5m") Duration ttl,
+                                   @Property(name = "permissions-manager.application.passphrase.verified-cache-size", defaultValue = "10000") int maxEntries) {
+        this.enabled = !ttl.isNegative() && !ttl.isZero() && maxEntries > 0;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(enabled ? ttl : Duration.ZERO)
+                .maximumSize(Math.max(0, maxEntries))
+                .build();
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.key = new SecretKeySpec(keyBytes, HMAC);
+    }
+
+    public boolean isVerified(Long applicationId, String passphrase) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] verified = entries.getIfPresent(applicationId);
+        return verified != null && MessageDigest.isEqual(verified, mac(passphrase));
+    }
+
+    // Read before loading the stored hash and pass to put, which ignores the result if the passphrase changed since.
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void put(Long applicationId, String passphrase, long verifiedAtGeneration) {
+        if (!enabled) {
+            return;
+        }
+        byte[] verified = mac(passphrase);
+        entries.put(applicationId, verified);
+        if (generation.get() != verifiedAtGeneration) {
+            entries.asMap().remove(applicationId, verified);
+        }
+    }
+
+    public void invalidate(Long applicationId) {
+        generation.incrementAndGet();
+        entries.invalidate(applicationId);
+    }
+
+    private byte[] mac(String passphrase) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(passphrase.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.util;
+
+// Conditional request matching shared by the endpoints that hand out ETags.
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // Accepts a bare ETag as well as an If-None-Match list of quoted or weak validators. A "*" is not
+    // a match: the client must hold a copy of this exact document to skip the download.
+    public static boolean matches(String requestEtag, String etag) {
+        if (requestEtag == null) {
+            return false;
+        }
+        for (String candidate : requestEtag.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.length() >= 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+                candidate = candidate.substring(1, candidate.length() - 1);
+            }
+            if (candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+-- Copyright 2023 DDS Permissions Manager Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+
+-- Indexes for the lookups the repositories run on every request. permissions_user(email) is already
+-- covered by uk_user_email; the refresh token lookups get theirs in V4, once the tokens are hashed.
+
+-- memberships of a user (role index, membership checks) and of a group (member lists, group deletion)
+CREATE INDEX idx_group_user_user_group ON permissions_group_user (permissions_user_id, permissions_group_id);
+CREATE INDEX idx_group_user_group ON permissions_group_user (permissions_group_id);
+
+-- grants of an application (permissions files, grant checks) and of a topic (topic pages, topic deletion)
+CREATE INDEX idx_application_permission_application_topic ON permissions_application_permission (permissions_application_id, permissions_topic_id);
+CREATE INDEX idx_application_permission_topic ON permissions_application_permission (permissions_topic_id);
+
+-- name lookups within a group
+CREATE INDEX idx_topic_group_name ON permissions_topic (permissions_group_id, name);
+CREATE INDEX idx_application_group_name ON permissions_application (permissions_group_id, name);
+
+-- partitions of a page of grants
+CREATE INDEX idx_partition_read_permission ON permissions_partition (r_application_permission_id);
+CREATE INDEX idx_partition_write_permission ON permissions_partition (w_application_permission_id);
@@ -0,0 +1,24 @@
+-- Copyright 2023 DDS Permissions Manager Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+
+-- Partition ids are handed out in blocks of 50 from this table (Hibernate's pooled-lo table generator) instead of
+-- by the identity column, which lets Hibernate batch partition inserts. Each row holds the next free id.
+CREATE TABLE permissions_id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    CONSTRAINT pk_id_generator PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO permissions_id_generator (sequence_name, next_val)
+SELECT 'permissions_partition', COALESCE(MAX(id), 0) + 1 FROM permissions_partition;
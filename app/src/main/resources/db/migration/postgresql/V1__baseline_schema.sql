@@ -0,0 +1,91 @@
+-- Copyright 2023 DDS Permissions Manager Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+
+-- The schema as hbm2ddl generated it before migrations were introduced. Databases it already created are baselined at this
+-- version, so it must not change: later schema changes belong in new versions.
+
+CREATE TABLE permissions_user (
+    id BIGSERIAL PRIMARY KEY,
+    admin BOOLEAN NOT NULL,
+    email VARCHAR(255),
+    permissions_last_updated BIGINT,
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+CREATE TABLE permissions_group (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    make_public BOOLEAN NOT NULL,
+    CONSTRAINT uk_group_name UNIQUE (name)
+);
+
+CREATE TABLE permissions_topic (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    kind INTEGER NOT NULL,
+    description TEXT,
+    make_public BOOLEAN NOT NULL,
+    permissions_group_id BIGINT NOT NULL,
+    CONSTRAINT fk_topic_group FOREIGN KEY (permissions_group_id) REFERENCES permissions_group (id) ON DELETE CASCADE
+);
+
+CREATE TABLE permissions_application (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    encrypted_password VARCHAR(255),
+    description TEXT,
+    make_public BOOLEAN NOT NULL,
+    permissions_group_id BIGINT NOT NULL,
+    CONSTRAINT fk_application_group FOREIGN KEY (permissions_group_id) REFERENCES permissions_group (id) ON DELETE CASCADE
+);
+
+CREATE TABLE permissions_group_user (
+    id BIGSERIAL PRIMARY KEY,
+    group_admin BOOLEAN NOT NULL,
+    topic_admin BOOLEAN NOT NULL,
+    application_admin BOOLEAN NOT NULL,
+    permissions_group_id BIGINT NOT NULL,
+    permissions_user_id BIGINT NOT NULL,
+    CONSTRAINT fk_group_user_group FOREIGN KEY (permissions_group_id) REFERENCES permissions_group (id),
+    CONSTRAINT fk_group_user_user FOREIGN KEY (permissions_user_id) REFERENCES permissions_user (id)
+);
+
+CREATE TABLE permissions_application_permission (
+    id BIGSERIAL PRIMARY KEY,
+    permission_read BOOLEAN NOT NULL,
+    permission_write BOOLEAN NOT NULL,
+    permissions_application_id BIGINT NOT NULL,
+    permissions_topic_id BIGINT NOT NULL,
+    CONSTRAINT fk_application_permission_application FOREIGN KEY (permissions_application_id) REFERENCES permissions_application (id),
+    CONSTRAINT fk_application_permission_topic FOREIGN KEY (permissions_topic_id) REFERENCES permissions_topic (id)
+);
+
+-- ReadPartition and WritePartition share this table; a row references its permission through one of the two columns.
+CREATE TABLE permissions_partition (
+    id BIGSERIAL PRIMARY KEY,
+    partition_name VARCHAR(255),
+    r_application_permission_id BIGINT,
+    w_application_permission_id BIGINT,
+    CONSTRAINT fk_partition_read_permission FOREIGN KEY (r_application_permission_id) REFERENCES permissions_application_permission (id) ON DELETE CASCADE,
+    CONSTRAINT fk_partition_write_permission FOREIGN KEY (w_application_permission_id) REFERENCES permissions_application_permission (id) ON DELETE CASCADE
+);
+
+CREATE TABLE refresh_token (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    refresh_token VARCHAR(255) NOT NULL,
+    revoked BOOLEAN NOT NULL,
+    date_created TIMESTAMP NOT NULL
+);
@@ -0,0 +1,26 @@
+-- Copyright 2023 DDS Permissions Manager Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+
+-- Columns and indexes the entities gained after the V1 baseline.
+
+-- Bumped by ApplicationRepository whenever an application's grants change; existing applications start at 0.
+ALTER TABLE permissions_application ADD COLUMN permissions_generation BIGINT DEFAULT 0 NOT NULL;
+
+-- Refresh tokens are stored as hex SHA-256 hashes. Tokens stored in plain text can never match a lookup again,
+-- so they are dropped (their users sign in again) before the column is narrowed to the hash length.
+DELETE FROM refresh_token WHERE LENGTH(refresh_token) <> 64;
+ALTER TABLE refresh_token ALTER COLUMN refresh_token TYPE VARCHAR(64);
+ALTER TABLE refresh_token ALTER COLUMN refresh_token SET NOT NULL;
+CREATE UNIQUE INDEX idx_refresh_token_hash ON refresh_token (refresh_token);
+CREATE INDEX idx_refresh_token_username ON refresh_token (username);
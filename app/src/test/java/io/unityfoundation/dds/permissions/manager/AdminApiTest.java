@@ -26,14 +26,18 @@ import io.micronaut.http.client.exceptions.HttpClientResponseException;
 import io.micronaut.security.authentication.ServerAuthentication;
 import io.micronaut.security.utils.SecurityService;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.transaction.TransactionOperations;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserDTO;
 import io.unityfoundation.dds.permissions.manager.model.user.AdminDTO;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.UserService;
+import io.unityfoundation.dds.permissions.manager.security.AdminRegistry;
 import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -67,6 +71,15 @@ public class AdminApiTest {
     @Inject
     DbCleanup dbCleanup;
 
+    @Inject
+    UserService userService;
+
+    @Inject
+    AdminRegistry adminRegistry;
+
+    @Inject
+    TransactionOperations<Session> transactionOperations;
+
     @BeforeEach
     void setup() {
         blockingClient = client.toBlocking();
@@ -103,6 +116,19 @@ public class AdminApiTest {
             assertEquals(OK, response.getStatus());
         }
 
+        @Test
+        void promotionIsOnlyGrantedOnceItCommits() {
+            transactionOperations.executeWrite(status -> {
+                userService.save(new AdminDTO("rolledback@test.test"));
+                status.setRollbackOnly();
+                return null;
+            });
+            assertFalse(adminRegistry.isAdmin("rolledback@test.test"));
+
+            userService.save(new AdminDTO("committed@test.test"));
+            assertTrue(adminRegistry.isAdmin("committed@test.test"));
+        }
+
         @Test
         void canEscalateExistingMembersPrivilegeToAdmin(){
             // group
@@ -13,15 +13,19 @@
 // limitations under the License.
 package io.unityfoundation.dds.permissions.manager;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micronaut.context.annotation.Property;
 import io.micronaut.context.annotation.Replaces;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.data.model.Page;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.client.BlockingHttpClient;
 import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.StreamingHttpClient;
 import io.micronaut.http.client.annotation.Client;
 import io.micronaut.http.client.exceptions.HttpClientResponseException;
 import io.micronaut.http.cookie.Cookie;
@@ -29,6 +33,9 @@ import io.micronaut.security.authentication.ServerAuthentication;
 import io.micronaut.security.utils.SecurityService;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import io.unityfoundation.dds.permissions.manager.model.application.ApplicationDTO;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationService;
+import io.unityfoundation.dds.permissions.manager.model.application.ProvisioningMetrics;
+import io.unityfoundation.dds.permissions.manager.model.application.ProvisioningRequestDTO;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.AccessPermissionDTO;
 import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionService;
 import io.unityfoundation.dds.permissions.manager.model.group.Group;
@@ -40,13 +47,22 @@ import io.unityfoundation.dds.permissions.manager.model.topic.TopicKind;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
+import io.unityfoundation.dds.permissions.manager.security.ApplicationSecretsClient;
+import io.unityfoundation.dds.permissions.manager.security.CryptoExecutor;
 import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.junit.jupiter.api.*;
+import reactor.core.publisher.Flux;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 
 import java.text.Collator;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -68,7 +84,10 @@ public class ApplicationApiTest {
     MockAuthenticationFetcher mockAuthenticationFetcher;
 
     @Inject
-    MockApplicationSecretsClient mockApplicationSecretsClient;
+    MockSecretSource mockSecretSource;
+
+    @Inject
+    ApplicationSecretsClient applicationSecretsClient;
 
     @Inject
     GroupRepository groupRepository;
@@ -79,10 +98,20 @@ public class ApplicationApiTest {
     @Inject
     DbCleanup dbCleanup;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    DataSource dataSource;
+
     @Inject
     @Client("/api")
     HttpClient client;
 
+    @Inject
+    @Client("/api")
+    StreamingHttpClient streamingClient;
+
     @BeforeEach
     void setup() {
         blockingClient = client.toBlocking();
@@ -962,6 +991,52 @@ public class ApplicationApiTest {
             assertTrue(response.getCookie("JWT").isPresent());
         }
 
+        @Test
+        void repeatedLoginsReuseTheVerifiedPassphraseUntilItIsRegenerated() {
+            HttpRequest<?> request;
+            HttpResponse<?> response;
+
+            response = createGroup("PrimaryGroup");
+            assertEquals(OK, response.getStatus());
+            Group primaryGroup = response.getBody(Group.class).get();
+
+            response = createApplication("ApplicationOne", primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            ApplicationDTO applicationOne = response.getBody(ApplicationDTO.class).get();
+
+            request = HttpRequest.GET("/applications/generate_passphrase/" + applicationOne.getId());
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            String passphrase = response.getBody(String.class).get();
+
+            Map credentials = Map.of(
+                    "username", applicationOne.getId().toString(),
+                    "password", passphrase
+            );
+            long derivations = passphraseDerivations();
+            for (int i = 0; i < 3; i++) {
+                response = blockingClient.exchange(HttpRequest.POST("/login", credentials), Map.class);
+                assertEquals(SEE_OTHER, response.getStatus());
+                assertTrue(response.getCookie("JWT").isPresent());
+            }
+            // only the first login derives the Argon2 hash
+            assertEquals(derivations + 1, passphraseDerivations());
+
+            // a new passphrase invalidates the old one immediately
+            request = HttpRequest.GET("/applications/generate_passphrase/" + applicationOne.getId());
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+
+            response = blockingClient.exchange(HttpRequest.POST("/login", credentials), Map.class);
+            assertEquals(SEE_OTHER, response.getStatus());
+            assertTrue(response.getCookie("JWT").isEmpty());
+        }
+
+        private long passphraseDerivations() {
+            Timer passphrase = meterRegistry.find(CryptoExecutor.SERVICE_TIMER).tag("stage", ApplicationService.PASSPHRASE_STAGE).timer();
+            return passphrase == null ? 0 : passphrase.count();
+        }
+
         @Test
         void canGenerateApplicationGrantToken() {
             HttpRequest request;
@@ -989,6 +1064,58 @@ public class ApplicationApiTest {
             assertTrue(optional.isPresent());
         }
 
+        @Test
+        void canProvisionApplicationsInBatch() {
+            HttpResponse<?> response;
+
+            // create group
+            response = createGroup("PrimaryGroup");
+            assertEquals(OK, response.getStatus());
+            Group primaryGroup = response.getBody(Group.class).get();
+
+            // create applications
+            response = createApplication("ApplicationOne", primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            ApplicationDTO applicationOne = response.getBody(ApplicationDTO.class).get();
+
+            response = createApplication("ApplicationTwo", primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            ApplicationDTO applicationTwo = response.getBody(ApplicationDTO.class).get();
+
+            ProvisioningRequestDTO provisioningRequest = new ProvisioningRequestDTO();
+            provisioningRequest.setApplications(List.of(
+                    new ProvisioningRequestDTO.Entry(applicationOne.getId(), "first"),
+                    new ProvisioningRequestDTO.Entry(applicationTwo.getId(), "second")
+            ));
+            provisioningRequest.setIncludeKeyPair(true);
+
+            HttpRequest<?> request = HttpRequest.POST("/applications/provision", provisioningRequest);
+            List<Map> results = Flux.from(streamingClient.jsonStream(request, Map.class)).collectList().block();
+            assertNotNull(results);
+            assertEquals(2, results.size());
+
+            Map<Long, String> expectedNonces = Map.of(applicationOne.getId(), "first", applicationTwo.getId(), "second");
+            for (Map result : results) {
+                Long applicationId = ((Number) result.get("application")).longValue();
+                String nonce = expectedNonces.get(applicationId);
+                assertEquals(nonce, result.get("nonce"));
+                assertFalse(result.containsKey("code"));
+                assertTrue(((String) result.get("permissions")).contains("CN=" + applicationId + "_" + nonce));
+                assertTrue(((String) result.get("privateKey")).contains("PRIVATE KEY"));
+                assertTrue(((String) result.get("certificate")).contains("CERTIFICATE"));
+            }
+
+            // invalid nonce rejects the whole batch
+            provisioningRequest.setApplications(List.of(new ProvisioningRequestDTO.Entry(applicationOne.getId(), "uni_ty")));
+            HttpRequest<?> invalidNonceRequest = HttpRequest.POST("/applications/provision", provisioningRequest);
+            HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () -> {
+                blockingClient.exchange(invalidNonceRequest, String.class);
+            });
+            assertEquals(BAD_REQUEST, exception.getStatus());
+            List<Map> list = exception.getResponse().getBody(List.class).get();
+            assertTrue(list.stream().anyMatch(map -> ResponseStatusCodes.INVALID_NONCE_FORMAT.equals(map.get("code"))));
+        }
+
         @Test
         void cannotGenerateApplicationGrantTokenForApplicationThatDoesNotExist() {
             HttpRequest request;
@@ -1991,6 +2118,36 @@ public class ApplicationApiTest {
             List<Map> list = bodyOptional.get();
             assertTrue(list.stream().anyMatch(group -> ResponseStatusCodes.UNAUTHORIZED.equals(group.get("code"))));
         }
+
+        @Test
+        void cannotProvisionApplicationsOfOtherGroups() {
+            mockSecurityService.postConstruct();
+            mockAuthenticationFetcher.setAuthentication(mockSecurityService.getAuthentication().get());
+
+            HttpResponse<?> response;
+
+            // create group
+            response = createGroup("PrimaryGroup");
+            assertEquals(OK, response.getStatus());
+            Group primaryGroup = response.getBody(Group.class).get();
+
+            // create application
+            response = createApplication("ApplicationOne", primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            ApplicationDTO applicationOne = response.getBody(ApplicationDTO.class).get();
+
+            loginAsNonAdmin();
+
+            ProvisioningRequestDTO provisioningRequest = new ProvisioningRequestDTO();
+            provisioningRequest.setApplications(List.of(new ProvisioningRequestDTO.Entry(applicationOne.getId(), "unity")));
+            HttpRequest<?> request = HttpRequest.POST("/applications/provision", provisioningRequest);
+            HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () -> {
+                blockingClient.exchange(request, String.class);
+            });
+            assertEquals(UNAUTHORIZED, exception.getStatus());
+            List<Map> list = exception.getResponse().getBody(List.class).get();
+            assertTrue(list.stream().anyMatch(map -> ResponseStatusCodes.UNAUTHORIZED.equals(map.get("code"))));
+        }
     }
 
     @Nested
@@ -2001,12 +2158,12 @@ public class ApplicationApiTest {
             userRepository.save(new User("montesm@test.test.com", true));
             mockSecurityService.postConstruct();
             mockAuthenticationFetcher.setAuthentication(mockSecurityService.getAuthentication().get());
-            setETagPropsForMockApplicationSecretsClient("abc", false);
+            setETagForMockSecretSource("abc");
         }
 
-        void setETagPropsForMockApplicationSecretsClient(String etag, boolean hasCachedFileBeenUpdated) {
-            mockApplicationSecretsClient.setEtag(etag);
-            mockApplicationSecretsClient.setHasCachedFileBeenUpdated(hasCachedFileBeenUpdated);
+        void setETagForMockSecretSource(String etag) {
+            mockSecretSource.setEtag(etag);
+            applicationSecretsClient.refresh();
         }
 
         void loginAsApplication(Long applicationId) {
@@ -2329,7 +2486,7 @@ public class ApplicationApiTest {
             assertTrue(jwtOptional.isPresent());
 
             loginAsApplication(applicationOne.getId());
-            setETagPropsForMockApplicationSecretsClient("xyz", true);
+            setETagForMockSecretSource("xyz");
 
             String originalFileEtag = "abc";
             request = HttpRequest.GET("/applications/identity_ca.pem").header(E_TAG_HEADER_NAME, originalFileEtag);
@@ -2481,6 +2638,7 @@ public class ApplicationApiTest {
             List<Map> list = listOptional.get();
             assertTrue(list.stream().anyMatch(group -> ResponseStatusCodes.INVALID_NONCE_FORMAT.equals(group.get("code"))));
 
+            long issued = keyPairStageCount(ProvisioningMetrics.CERT_BUILD);
             request = HttpRequest.GET("/applications/key_pair?nonce=unity");
             response = blockingClient.exchange(request, Map.class);
             assertEquals(OK, response.getStatus());
@@ -2489,6 +2647,16 @@ public class ApplicationApiTest {
             Map map = bodyOptional.get();
             assertTrue(map.containsKey("public"));
             assertTrue(map.containsKey("private"));
+
+            // each stage of issuing the credentials is timed
+            assertEquals(issued + 1, keyPairStageCount(ProvisioningMetrics.CERT_BUILD));
+            assertTrue(keyPairStageCount(ProvisioningMetrics.KEYGEN) > 0);
+            assertTrue(keyPairStageCount(ProvisioningMetrics.PEM_ENCODE) > 0);
+        }
+
+        private long keyPairStageCount(String stage) {
+            return meterRegistry.timer(ProvisioningMetrics.STAGE_TIMER,
+                    "endpoint", ProvisioningMetrics.KEY_PAIR, "stage", stage).count();
         }
 
         @Test
@@ -2553,6 +2721,253 @@ public class ApplicationApiTest {
             assertTrue(body.contains("GN="+applicationOne.getName()));
             assertTrue(body.contains("SN="+primaryGroup.getId()));
         }
+
+        @Test
+        void canRevalidatePermissionsFile() {
+            HttpRequest request;
+            HttpResponse response;
+
+            // create groups
+            response = createGroup("PrimaryGroup");
+            assertEquals(OK, response.getStatus());
+            Optional<Group> primaryOptional = response.getBody(Group.class);
+            assertTrue(primaryOptional.isPresent());
+            Group primaryGroup = primaryOptional.get();
+
+            // create application
+            response = createApplication("ApplicationOne", primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            Optional<ApplicationDTO> applicationOneOptional = response.getBody(ApplicationDTO.class);
+            assertTrue(applicationOneOptional.isPresent());
+            ApplicationDTO applicationOne = applicationOneOptional.get();
+
+            // create topic
+            response = createTopic("Topic123", TopicKind.C, primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            Optional<TopicDTO> topicOptional = response.getBody(TopicDTO.class);
+            assertTrue(topicOptional.isPresent());
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            String originalEtag = response.header(E_TAG_HEADER_NAME);
+            assertNotNull(originalEtag);
+
+            // both the ETag header used by existing clients and a standard If-None-Match are honoured
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(E_TAG_HEADER_NAME, originalEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(NOT_MODIFIED, response.getStatus());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(HttpHeaders.IF_NONE_MATCH, "\"" + originalEtag + "\"");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(NOT_MODIFIED, response.getStatus());
+
+            // the subject carries the nonce, so another nonce is another document
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=other").header(E_TAG_HEADER_NAME, originalEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            assertNotEquals(originalEtag, response.header(E_TAG_HEADER_NAME));
+
+            // a wildcard does not stand in for a copy the client holds
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(HttpHeaders.IF_NONE_MATCH, "*");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+
+            // renaming the application changes the subject as well
+            mockSecurityService.postConstruct();
+            mockAuthenticationFetcher.setAuthentication(mockSecurityService.getAuthentication().get());
+
+            applicationOne.setName("ApplicationOneRenamed");
+            response = blockingClient.exchange(HttpRequest.POST("/applications/save", applicationOne), ApplicationDTO.class);
+            assertEquals(OK, response.getStatus());
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(E_TAG_HEADER_NAME, originalEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            assertTrue(((String) response.getBody(String.class).get()).contains("ApplicationOneRenamed"));
+            assertNotEquals(originalEtag, response.header(E_TAG_HEADER_NAME));
+            originalEtag = response.header(E_TAG_HEADER_NAME);
+
+            // switch back to admin to add new permission...
+            mockSecurityService.postConstruct();
+            mockAuthenticationFetcher.setAuthentication(mockSecurityService.getAuthentication().get());
+
+            response = createApplicationPermission(applicationOne.getId(), topicOptional.get().getId(), true, false);
+            assertEquals(CREATED, response.getStatus());
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(HttpHeaders.IF_NONE_MATCH, originalEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            String updatedEtag = response.header(E_TAG_HEADER_NAME);
+            assertNotNull(updatedEtag);
+            assertNotEquals(originalEtag, updatedEtag);
+
+            // a new permissions CA also invalidates the signed file
+            setETagForMockSecretSource("xyz");
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(E_TAG_HEADER_NAME, updatedEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            assertNotEquals(updatedEtag, response.header(E_TAG_HEADER_NAME));
+        }
+
+        @Test
+        void applicationsDoNotRollOverToANewSignedFileTogether() {
+            long renewalPeriod = TimeUnit.DAYS.toMillis(15);
+            long now = System.currentTimeMillis();
+
+            // the instant application 1 moves to its next bucket
+            long bucket = ApplicationService.renewalBucket(1L, now, renewalPeriod);
+            long rollover = now + 1;
+            while (ApplicationService.renewalBucket(1L, rollover, renewalPeriod) == bucket) {
+                rollover += TimeUnit.MINUTES.toMillis(1);
+            }
+            while (ApplicationService.renewalBucket(1L, rollover - 1, renewalPeriod) != bucket) {
+                rollover--;
+            }
+
+            // neighbouring ids keep their files well either side of it
+            for (long applicationId = 2; applicationId <= 10; applicationId++) {
+                long hourBefore = rollover - TimeUnit.HOURS.toMillis(1);
+                long hourAfter = rollover + TimeUnit.HOURS.toMillis(1);
+                assertEquals(ApplicationService.renewalBucket(applicationId, hourBefore, renewalPeriod),
+                        ApplicationService.renewalBucket(applicationId, hourAfter, renewalPeriod));
+            }
+
+            // each application still renews once per period
+            assertEquals(bucket + 1, ApplicationService.renewalBucket(1L, rollover, renewalPeriod));
+            assertEquals(bucket + 2, ApplicationService.renewalBucket(1L, rollover + renewalPeriod, renewalPeriod));
+        }
+
+        @Test
+        void revalidatesAgainstTheStoredGenerationWhenTheCachedApplicationIsBehind() throws SQLException {
+            HttpRequest request;
+            HttpResponse response;
+
+            response = createGroup("PrimaryGroup");
+            assertEquals(OK, response.getStatus());
+            Optional<Group> primaryOptional = response.getBody(Group.class);
+            assertTrue(primaryOptional.isPresent());
+
+            response = createApplication("ApplicationOne", primaryOptional.get().getId());
+            assertEquals(OK, response.getStatus());
+            Optional<ApplicationDTO> applicationOneOptional = response.getBody(ApplicationDTO.class);
+            assertTrue(applicationOneOptional.isPresent());
+            ApplicationDTO applicationOne = applicationOneOptional.get();
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            String originalEtag = response.header(E_TAG_HEADER_NAME);
+            assertNotNull(originalEtag);
+
+            // a write committed by another node: the row moves on, this node's cached Application does not
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "UPDATE permissions_application SET permissions_generation = permissions_generation + 1 WHERE id = ?")) {
+                statement.setLong(1, applicationOne.getId());
+                assertEquals(1, statement.executeUpdate());
+            }
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(E_TAG_HEADER_NAME, originalEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            String updatedEtag = response.header(E_TAG_HEADER_NAME);
+            assertNotNull(updatedEtag);
+            assertNotEquals(originalEtag, updatedEtag);
+
+            // the ETag that was handed out is the one that revalidates
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=unity").header(E_TAG_HEADER_NAME, updatedEtag);
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(NOT_MODIFIED, response.getStatus());
+        }
+
+        @Test
+        void permissionsFileReflectsPermissionChanges() {
+            HttpRequest request;
+            HttpResponse response;
+
+            // create groups
+            response = createGroup("PrimaryGroup");
+            assertEquals(OK, response.getStatus());
+            Optional<Group> primaryOptional = response.getBody(Group.class);
+            assertTrue(primaryOptional.isPresent());
+            Group primaryGroup = primaryOptional.get();
+
+            // create application
+            response = createApplication("ApplicationOne", primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            Optional<ApplicationDTO> applicationOneOptional = response.getBody(ApplicationDTO.class);
+            assertTrue(applicationOneOptional.isPresent());
+            ApplicationDTO applicationOne = applicationOneOptional.get();
+
+            // create topic
+            response = createTopic("Topic123", TopicKind.C, primaryGroup.getId());
+            assertEquals(OK, response.getStatus());
+            Optional<TopicDTO> topicOptional = response.getBody(TopicDTO.class);
+            assertTrue(topicOptional.isPresent());
+            TopicDTO topic = topicOptional.get();
+            String canonicalName = "C." + primaryGroup.getId() + ".Topic123";
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=first");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            String body = (String) response.getBody(String.class).get();
+            assertTrue(body.contains("CN=" + applicationOne.getId() + "_first"));
+            assertFalse(body.contains(canonicalName));
+
+            // same permissions, different nonce
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=second");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            body = (String) response.getBody(String.class).get();
+            assertTrue(body.contains("CN=" + applicationOne.getId() + "_second"));
+            assertFalse(body.contains("CN=" + applicationOne.getId() + "_first"));
+
+            // switch back to admin to add new permission...
+            mockSecurityService.postConstruct();
+            mockAuthenticationFetcher.setAuthentication(mockSecurityService.getAuthentication().get());
+
+            response = createApplicationPermission(applicationOne.getId(), topic.getId(), true, false);
+            assertEquals(CREATED, response.getStatus());
+            Optional<AccessPermissionDTO> permissionOptional = response.getBody(AccessPermissionDTO.class);
+            assertTrue(permissionOptional.isPresent());
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=third");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            body = (String) response.getBody(String.class).get();
+            assertTrue(body.contains("CN=" + applicationOne.getId() + "_third"));
+            assertTrue(body.contains("<subscribe>"));
+            assertTrue(body.contains(canonicalName));
+
+            // switch back to admin to remove the permission
+            mockSecurityService.postConstruct();
+            mockAuthenticationFetcher.setAuthentication(mockSecurityService.getAuthentication().get());
+
+            request = HttpRequest.DELETE("/application_permissions/" + permissionOptional.get().getId());
+            response = blockingClient.exchange(request);
+            assertEquals(NO_CONTENT, response.getStatus());
+
+            loginAsApplication(applicationOne.getId());
+
+            request = HttpRequest.GET("/applications/permissions.xml.p7s?nonce=fourth");
+            response = blockingClient.exchange(request, String.class);
+            assertEquals(OK, response.getStatus());
+            body = (String) response.getBody(String.class).get();
+            assertFalse(body.contains(canonicalName));
+        }
     }
 
     private void assertResultOnlyContainsExpectedApplicationNames(List<Map> results, List<String> expectedApplicationNames) {
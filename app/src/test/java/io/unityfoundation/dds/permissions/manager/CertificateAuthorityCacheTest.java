@@ -0,0 +1,84 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.security.ApplicationSecretsClient;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthority;
+import io.unityfoundation.dds.permissions.manager.security.CertificateAuthorityCache;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+public class CertificateAuthorityCacheTest {
+
+    @Inject
+    CertificateAuthorityCache certificateAuthorityCache;
+
+    @Inject
+    MockSecretSource mockSecretSource;
+
+    @Inject
+    ApplicationSecretsClient applicationSecretsClient;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanup() {
+        mockSecretSource.setEtag("abc");
+        applicationSecretsClient.refresh();
+    }
+
+    @Test
+    void parsesEachCAOncePerSecretVersion() throws Exception {
+        CertificateAuthority identityCA = certificateAuthorityCache.getIdentityCA().get();
+        CertificateAuthority permissionsCA = certificateAuthorityCache.getPermissionsCA().get();
+        assertNotSame(identityCA, permissionsCA);
+
+        assertSame(identityCA, certificateAuthorityCache.getIdentityCA().get());
+        assertSame(permissionsCA, certificateAuthorityCache.getPermissionsCA().get());
+
+        mockSecretSource.setEtag("xyz");
+        applicationSecretsClient.refresh();
+
+        CertificateAuthority refreshedIdentityCA = certificateAuthorityCache.getIdentityCA().get();
+        assertNotSame(identityCA, refreshedIdentityCA);
+        assertEquals(identityCA.getCertificate(), refreshedIdentityCA.getCertificate());
+        assertSame(refreshedIdentityCA, certificateAuthorityCache.getIdentityCA().get());
+        assertNotSame(permissionsCA, certificateAuthorityCache.getPermissionsCA().get());
+    }
+
+    @Test
+    void recordsCacheLookupsAndSecretRefreshes() throws Exception {
+        certificateAuthorityCache.getIdentityCA();
+        double hits = meterRegistry.counter("dpm.secrets.ca.cache", "ca", "identity", "result", "hit").count();
+        double misses = meterRegistry.counter("dpm.secrets.ca.cache", "ca", "identity", "result", "miss").count();
+        long updated = meterRegistry.timer("dpm.secrets.refresh", "outcome", "updated").count();
+
+        certificateAuthorityCache.getIdentityCA();
+        assertEquals(hits + 1, meterRegistry.counter("dpm.secrets.ca.cache", "ca", "identity", "result", "hit").count());
+
+        mockSecretSource.setEtag("xyz");
+        applicationSecretsClient.refresh();
+        assertEquals(updated + 1, meterRegistry.timer("dpm.secrets.refresh", "outcome", "updated").count());
+
+        certificateAuthorityCache.getIdentityCA();
+        assertEquals(misses + 1, meterRegistry.counter("dpm.secrets.ca.cache", "ca", "identity", "result", "miss").count());
+    }
+}
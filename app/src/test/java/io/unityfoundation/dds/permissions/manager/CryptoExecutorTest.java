@@ -0,0 +1,114 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.exception.DPMRetryLaterException;
+import io.unityfoundation.dds.permissions.manager.security.CryptoExecutor;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+@Property(name = "permissions-manager.crypto.threads", value = "1")
+@Property(name = "permissions-manager.crypto.queue-capacity", value = "1")
+@Property(name = "permissions-manager.crypto.retry-after", value = "7")
+public class CryptoExecutorTest {
+
+    @Inject
+    CryptoExecutor cryptoExecutor;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Test
+    void rejectsWorkBeyondTheQueueWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = cryptoExecutor.submit("test", () -> {
+            started.countDown();
+            release.await();
+            return "running";
+        });
+        started.await();
+        CompletableFuture<String> queued = cryptoExecutor.submit("test", () -> "queued");
+
+        DPMRetryLaterException exception = assertThrowsExactly(DPMRetryLaterException.class, () -> {
+            cryptoExecutor.submit("test", () -> "rejected");
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+        assertEquals(ResponseStatusCodes.APPLICATION_SIGNING_CAPACITY_EXCEEDED, exception.getResponseStatusCode());
+        assertEquals(7, exception.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals("running", running.get());
+        assertEquals("queued", queued.get());
+        assertEquals("executed", cryptoExecutor.execute("test", () -> "executed"));
+
+        Map<String, Object> statistics = cryptoExecutor.getStatistics();
+        assertEquals(1, statistics.get("poolSize"));
+        assertEquals(1, statistics.get("queueCapacity"));
+        Map<String, Object> stage = (Map<String, Object>) ((Map<String, Object>) statistics.get("stages")).get("test");
+        assertEquals(3L, stage.get("executed"));
+        assertEquals(1L, stage.get("rejected"));
+        assertEquals(0L, stage.get("failed"));
+
+        assertEquals(3, meterRegistry.get(CryptoExecutor.QUEUE_TIMER).tag("stage", "test").timer().count());
+        assertEquals(3, meterRegistry.get(CryptoExecutor.SERVICE_TIMER).tag("stage", "test").timer().count());
+        assertEquals(1, meterRegistry.get(CryptoExecutor.REJECTED_COUNTER).tag("stage", "test").counter().count());
+        assertEquals(0, meterRegistry.get(CryptoExecutor.QUEUED_GAUGE).tag("stage", "test").gauge().value());
+    }
+
+    @Test
+    void reportsQueuedTasksPerStage() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = cryptoExecutor.submit("signing", () -> {
+            started.countDown();
+            release.await();
+            return "running";
+        });
+        started.await();
+        CompletableFuture<String> queued = cryptoExecutor.submit("keygen", () -> "queued");
+
+        assertEquals(0, meterRegistry.get(CryptoExecutor.QUEUED_GAUGE).tag("stage", "signing").gauge().value());
+        assertEquals(1, meterRegistry.get(CryptoExecutor.QUEUED_GAUGE).tag("stage", "keygen").gauge().value());
+
+        release.countDown();
+        assertEquals("running", running.get());
+        assertEquals("queued", queued.get());
+        assertEquals(0, meterRegistry.get(CryptoExecutor.QUEUED_GAUGE).tag("stage", "keygen").gauge().value());
+    }
+
+    @Test
+    void rethrowsTheTaskException() {
+        IllegalArgumentException exception = assertThrowsExactly(IllegalArgumentException.class, () -> {
+            cryptoExecutor.execute("failing", () -> {
+                throw new IllegalArgumentException("bad key");
+            });
+        });
+        assertEquals("bad key", exception.getMessage());
+        assertEquals(1, meterRegistry.get(CryptoExecutor.FAILED_COUNTER).tag("stage", "failing").counter().count());
+    }
+}
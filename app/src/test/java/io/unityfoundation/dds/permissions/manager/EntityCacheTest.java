@@ -0,0 +1,162 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.security.utils.SecurityService;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.EntityCache;
+import io.unityfoundation.dds.permissions.manager.model.application.Application;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.group.SimpleGroupDTO;
+import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicKind;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.security.AdminRegistry;
+import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
+import io.unityfoundation.dds.permissions.manager.testing.util.StatementCounter;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Groups, topics, applications and users are read from the second-level cache until the services change them.
+@Property(name = "spec.name", value = "EntityCacheTest")
+@Property(name = "micronaut.security.filter.enabled", value = StringUtils.FALSE)
+@Property(name = "jpa.default.properties.hibernate.generate_statistics", value = StringUtils.TRUE)
+@MicronautTest
+public class EntityCacheTest {
+
+    private BlockingHttpClient blockingClient;
+
+    @Inject
+    MockSecurityService mockSecurityService;
+
+    @Inject
+    StatementCounter statementCounter;
+
+    @Inject
+    EntityCache entityCache;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    AdminRegistry adminRegistry;
+
+    @Inject
+    GroupRepository groupRepository;
+
+    @Inject
+    TopicRepository topicRepository;
+
+    @Inject
+    ApplicationRepository applicationRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    DbCleanup dbCleanup;
+
+    @Inject
+    @Client("/api")
+    HttpClient client;
+
+    private Group group;
+    private Topic topic;
+    private Application application;
+
+    @Requires(property = "spec.name", value = "EntityCacheTest")
+    @Replaces(SecurityService.class)
+    @Singleton
+    static class MockSecurityService extends SecurityServiceReplacement {
+    }
+
+    @BeforeEach
+    void setup() {
+        blockingClient = client.toBlocking();
+        dbCleanup.cleanup();
+
+        userRepository.save(new User("montesm@test.test.com", true));
+        adminRegistry.reload();
+        mockSecurityService.postConstruct();
+
+        group = groupRepository.save(new Group("PrimaryGroup"));
+        topic = topicRepository.save(new Topic("PrimaryTopic", TopicKind.B, group));
+        application = applicationRepository.save(new Application("PrimaryApplication", group));
+        entityCache.clear();
+    }
+
+    @Test
+    void loadedEntitiesAreReadAgainWithoutStatements() {
+        double hits = gets("topic", "hit");
+
+        assertTrue(statementCounter.statements(() -> topicRepository.findById(topic.getId())) > 0);
+        assertEquals(0, statementCounter.statements(() -> topicRepository.findById(topic.getId())));
+        // the topic's group was cached along with it
+        assertEquals(0, statementCounter.statements(() -> groupRepository.findById(group.getId())));
+        assertEquals(hits + 1, gets("topic", "hit"));
+
+        assertTrue(statementCounter.statements(() -> applicationRepository.findById(application.getId())) > 0);
+        assertEquals(0, statementCounter.statements(() -> applicationRepository.findById(application.getId())));
+    }
+
+    @Test
+    void updatesAndDeletesThroughTheServicesAreSeenRightAway() {
+        topicRepository.findById(topic.getId());
+        applicationRepository.findById(application.getId());
+
+        blockingClient.exchange(HttpRequest.POST("/groups/save",
+                new SimpleGroupDTO(group.getId(), "RenamedGroup", "Renamed", false)));
+        assertEquals("RenamedGroup", groupRepository.findById(group.getId()).get().getName());
+        assertEquals("RenamedGroup", topicRepository.findById(topic.getId()).get().getPermissionsGroup().getName());
+
+        // the topic and application rows are removed by the database's cascade
+        blockingClient.exchange(HttpRequest.DELETE("/groups/" + group.getId(), Map.of()));
+        assertTrue(groupRepository.findById(group.getId()).isEmpty());
+        assertTrue(topicRepository.findById(topic.getId()).isEmpty());
+        assertTrue(applicationRepository.findById(application.getId()).isEmpty());
+    }
+
+    @Test
+    void clearingTheCacheReloadsFromTheDatabase() {
+        topicRepository.findById(topic.getId());
+        assertEquals(0, statementCounter.statements(() -> topicRepository.findById(topic.getId())));
+
+        entityCache.clear();
+        assertTrue(statementCounter.statements(() -> topicRepository.findById(topic.getId())) > 0);
+        assertTrue(entityCache.describe().containsKey("topic"));
+    }
+
+    private double gets(String region, String result) {
+        return meterRegistry.get("cache.gets").tags("cache", region, "result", result).functionCounter().count();
+    }
+}
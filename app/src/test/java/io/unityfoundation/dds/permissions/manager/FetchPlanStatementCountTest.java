@@ -0,0 +1,319 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.data.model.Page;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.security.authentication.ServerAuthentication;
+import io.micronaut.security.utils.SecurityService;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.KeysetCursor;
+import io.unityfoundation.dds.permissions.manager.model.application.Application;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermission;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionRepository;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ReadPartition;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ReadPartitionRepository;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.WritePartition;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.WritePartitionRepository;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUser;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserRepository;
+import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicKind;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
+import io.unityfoundation.dds.permissions.manager.security.AdminRegistry;
+import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
+import io.unityfoundation.dds.permissions.manager.testing.util.StatementCounter;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Each list endpoint issues the same number of statements however many associated rows it returns.
+@Property(name = "spec.name", value = "FetchPlanStatementCountTest")
+@Property(name = "micronaut.security.filter.enabled", value = StringUtils.FALSE)
+@Property(name = "jpa.default.properties.hibernate.generate_statistics", value = StringUtils.TRUE)
+@MicronautTest
+public class FetchPlanStatementCountTest {
+
+    private BlockingHttpClient blockingClient;
+
+    @Inject
+    MockSecurityService mockSecurityService;
+
+    @Inject
+    StatementCounter statementCounter;
+
+    @Inject
+    AdminRegistry adminRegistry;
+
+    @Inject
+    GroupRepository groupRepository;
+
+    @Inject
+    GroupUserRepository groupUserRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    TopicRepository topicRepository;
+
+    @Inject
+    ApplicationRepository applicationRepository;
+
+    @Inject
+    ApplicationPermissionRepository applicationPermissionRepository;
+
+    @Inject
+    ReadPartitionRepository readPartitionRepository;
+
+    @Inject
+    WritePartitionRepository writePartitionRepository;
+
+    @Inject
+    DbCleanup dbCleanup;
+
+    @Inject
+    @Client("/api")
+    HttpClient client;
+
+    private Group group;
+
+    @Requires(property = "spec.name", value = "FetchPlanStatementCountTest")
+    @Replaces(SecurityService.class)
+    @Singleton
+    static class MockSecurityService extends SecurityServiceReplacement {
+    }
+
+    @BeforeEach
+    void setup() {
+        blockingClient = client.toBlocking();
+        dbCleanup.cleanup();
+
+        userRepository.save(new User("montesm@test.test.com", true));
+        adminRegistry.reload();
+        mockSecurityService.postConstruct();
+
+        group = groupRepository.save(new Group("PrimaryGroup"));
+        groupRepository.save(new Group("SecondaryGroup"));
+    }
+
+    @Test
+    void listingGroupsDoesNotLoadTopicsOrApplicationsPerGroup() {
+        HttpRequest<?> request = HttpRequest.GET("/groups");
+        blockingClient.retrieve(request, Page.class);
+        long before = statements(request);
+
+        for (int i = 0; i < 5; i++) {
+            topicRepository.save(new Topic("Topic" + i, TopicKind.B, group));
+            applicationRepository.save(new Application("Application" + i, group));
+        }
+        long after = statements(request);
+
+        assertEquals(before, after);
+        Map<String, Object> primary = (Map<String, Object>) blockingClient.retrieve(request, Page.class).getContent().get(0);
+        assertEquals("PrimaryGroup", primary.get("name"));
+        assertEquals(5, primary.get("topicCount"));
+        assertEquals(5, primary.get("applicationCount"));
+    }
+
+    @Test
+    void listingAccessPermissionsLoadsPartitionsForTheWholePage() {
+        Application small = applicationRepository.save(new Application("SmallApplication", group));
+        Application large = applicationRepository.save(new Application("LargeApplication", group));
+        grant(small, 1);
+        grant(large, 5);
+
+        HttpRequest<?> smallRequest = HttpRequest.GET("/application_permissions/application/" + small.getId());
+        HttpRequest<?> largeRequest = HttpRequest.GET("/application_permissions/application/" + large.getId());
+        blockingClient.retrieve(smallRequest, Page.class);
+        blockingClient.retrieve(largeRequest, Page.class);
+
+        assertEquals(statements(smallRequest), statements(largeRequest));
+        Map<String, Object> permission = (Map<String, Object>) blockingClient.retrieve(largeRequest, Page.class).getContent().get(0);
+        assertEquals(List.of("partition"), permission.get("readPartitions"));
+        assertEquals(List.of("partition"), permission.get("writePartitions"));
+    }
+
+    @Test
+    void listingMembersLoadsUsersAndGroupsWithTheMemberships() {
+        HttpRequest<?> request = HttpRequest.GET("/group_membership");
+        addMember("member0@test.test");
+        blockingClient.retrieve(request, Page.class);
+        long before = statements(request);
+
+        for (int i = 1; i < 5; i++) {
+            addMember("member" + i + "@test.test");
+        }
+        long after = statements(request);
+
+        assertEquals(before, after);
+        assertEquals(5, blockingClient.retrieve(request, Page.class).getContent().size());
+    }
+
+    @Test
+    void permissionsJsonLoadsTopicsAndPartitionsWithTheGrants() {
+        Application small = applicationRepository.save(new Application("SmallApplication", group));
+        Application large = applicationRepository.save(new Application("LargeApplication", group));
+        grant(small, 1);
+        grant(large, 5);
+
+        HttpRequest<?> request = HttpRequest.GET("/applications/permissions.json");
+        loginAsApplication(small);
+        blockingClient.retrieve(request, Map.class);
+        long smallStatements = statements(request);
+        loginAsApplication(large);
+        blockingClient.retrieve(request, Map.class);
+        long largeStatements = statements(request);
+
+        assertEquals(smallStatements, largeStatements);
+        assertEquals(5, ((List<?>) blockingClient.retrieve(request, Map.class).get("subscribes")).size());
+    }
+
+    @Test
+    void listPagesSelectOnlyThePageAndItsCount() {
+        for (int i = 0; i < 5; i++) {
+            topicRepository.save(new Topic("Topic" + i, TopicKind.B, group));
+            applicationRepository.save(new Application("Application" + i, group));
+            addMember("member" + i + "@test.test");
+        }
+
+        for (String uri : List.of("/groups", "/topics", "/applications", "/group_membership",
+                "/groups?filter=primary", "/topics?filter=topic", "/applications?filter=application", "/group_membership?filter=member")) {
+            HttpRequest<?> request = HttpRequest.GET(uri);
+            blockingClient.retrieve(request, Page.class);
+            assertEquals(2, statements(request), uri);
+        }
+
+        Map<String, Object> topic = (Map<String, Object>) blockingClient.retrieve(HttpRequest.GET("/topics?filter=topic0"), Page.class).getContent().get(0);
+        assertEquals("PrimaryGroup", topic.get("groupName"));
+        assertEquals("B." + group.getId() + ".Topic0", topic.get("canonicalName"));
+        Map<String, Object> primary = (Map<String, Object>) blockingClient.retrieve(HttpRequest.GET("/groups?filter=primary"), Page.class).getContent().get(0);
+        assertEquals(5, primary.get("membershipCount"));
+    }
+
+    @Test
+    void filteringMemberListsAddsNoStatements() {
+        Group secondary = groupRepository.findByName("SecondaryGroup").get();
+        addMember("member@test.test");
+        topicRepository.save(new Topic("MatchingTopic", TopicKind.B, group));
+        applicationRepository.save(new Application("MatchingApplication", group));
+        for (int i = 0; i < 5; i++) {
+            topicRepository.save(new Topic("MatchingTopic" + i, TopicKind.B, secondary));
+            applicationRepository.save(new Application("MatchingApplication" + i, secondary));
+        }
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "member@test.test",
+                Collections.emptyList(),
+                Map.of("isAdmin", false)
+        ));
+
+        for (String uri : List.of("/groups", "/topics", "/applications", "/group_membership")) {
+            HttpRequest<?> unfiltered = HttpRequest.GET(uri);
+            HttpRequest<?> filtered = HttpRequest.GET(uri + "?filter=" + (uri.equals("/group_membership") ? "member" : "primary"));
+            blockingClient.retrieve(unfiltered, Page.class);
+
+            assertEquals(statements(unfiltered), statements(filtered), uri);
+        }
+        assertEquals(1, blockingClient.retrieve(HttpRequest.GET("/topics?filter=matching"), Page.class).getTotalSize());
+        assertEquals(1, blockingClient.retrieve(HttpRequest.GET("/applications?filter=matching"), Page.class).getTotalSize());
+    }
+
+    @Test
+    void cursorPagesWalkEachListOnceWithoutCounting() {
+        Application application = applicationRepository.save(new Application("Application", group));
+        grant(application, 5);
+        for (int i = 0; i < 5; i++) {
+            applicationRepository.save(new Application("Application" + i, group));
+            addMember("member" + i + "@test.test");
+        }
+
+        assertEquals(List.of("PrimaryGroup", "SecondaryGroup"), walk("/groups?size=1", "name", 1));
+        assertEquals(List.of("ApplicationTopic0", "ApplicationTopic1", "ApplicationTopic2", "ApplicationTopic3", "ApplicationTopic4"),
+                walk("/topics?size=2", "name", 1));
+        assertEquals(List.of("Application", "Application0", "Application1", "Application2", "Application3", "Application4"),
+                walk("/applications?size=4&filter=application", "name", 1));
+        assertEquals(List.of("member0@test.test", "member1@test.test", "member2@test.test", "member3@test.test", "member4@test.test"),
+                walk("/group_membership?size=2", "permissionsUserEmail", 1));
+        assertEquals(List.of("ApplicationTopic0", "ApplicationTopic1", "ApplicationTopic2", "ApplicationTopic3", "ApplicationTopic4"),
+                walk("/application_permissions/application/" + application.getId() + "?size=2", "topicName", 2));
+
+        HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () ->
+                blockingClient.exchange(HttpRequest.GET("/topics?cursor=not-a-cursor")));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    // Follows nextCursor from the first page to the last, checking the statements each page costs.
+    private List<Object> walk(String uri, String key, long statementsPerPage) {
+        List<Object> keys = new ArrayList<>();
+        String cursor = KeysetCursor.FIRST;
+        while (cursor != null) {
+            HttpRequest<?> request = HttpRequest.GET(uri + "&cursor=" + cursor);
+            Map<String, Object> page = blockingClient.retrieve(request, Map.class);
+            ((List<Map<String, Object>>) page.get("content")).forEach(row -> keys.add(row.get(key)));
+            assertEquals(statementsPerPage, statements(request), uri);
+            cursor = (String) page.get("nextCursor");
+        }
+        assertFalse(keys.isEmpty(), uri);
+        return keys;
+    }
+
+    private void grant(Application application, int topics) {
+        for (int i = 0; i < topics; i++) {
+            Topic topic = topicRepository.save(new Topic(application.getName() + "Topic" + i, TopicKind.B, group));
+            ApplicationPermission permission = applicationPermissionRepository.save(new ApplicationPermission(application, topic, true, true));
+            readPartitionRepository.save(new ReadPartition(permission, "partition"));
+            writePartitionRepository.save(new WritePartition(permission, "partition"));
+        }
+    }
+
+    private void addMember(String email) {
+        User user = userRepository.save(new User(email));
+        groupUserRepository.save(new GroupUser(group, user));
+    }
+
+    private void loginAsApplication(Application application) {
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                String.valueOf(application.getId()),
+                List.of(UserRole.APPLICATION.toString()),
+                Map.of()
+        ));
+    }
+
+    private long statements(HttpRequest<?> request) {
+        return statementCounter.statements(() -> blockingClient.exchange(request));
+    }
+}
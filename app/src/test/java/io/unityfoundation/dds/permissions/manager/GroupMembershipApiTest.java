@@ -18,6 +18,7 @@ import io.micronaut.context.annotation.Replaces;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.data.model.Page;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
@@ -1439,6 +1440,82 @@ public class GroupMembershipApiTest {
             assertFalse((Boolean) userValidityPermissions.get("isApplicationAdmin"));
         }
 
+        @Test
+        public void tokenInfoIsNotModifiedUntilPermissionsChange() {
+            mockSecurityService.postConstruct();
+            mockDPMIntrospectionController.setAuthentication(mockSecurityService.getAuthentication().get());
+
+            HttpRequest<?> request;
+            HttpResponse<?> response;
+
+            Group secondaryGroup = new Group("SecondaryGroup");
+            request = HttpRequest.POST("/groups/save", secondaryGroup);
+            response = blockingClient.exchange(request, Group.class);
+            assertEquals(OK, response.getStatus());
+            secondaryGroup = response.getBody(Group.class).get();
+
+            GroupUserDTO dto = new GroupUserDTO();
+            dto.setPermissionsGroup(secondaryGroup.getId());
+            dto.setEmail("jjones@test.test");
+            request = HttpRequest.POST("/group_membership", dto);
+            response = blockingClient.exchange(request, GroupUserResponseDTO.class);
+            assertEquals(OK, response.getStatus());
+            GroupUserResponseDTO membership = response.getBody(GroupUserResponseDTO.class).get();
+
+            loginAsNonAdmin();
+
+            response = blockingClient.exchange(HttpRequest.GET("/token_info"), Map.class);
+            assertEquals(OK, response.getStatus());
+            String etag = response.header(HttpHeaders.ETAG);
+            assertNotNull(etag);
+
+            // an unchanged session is answered without a body
+            response = blockingClient.exchange(HttpRequest.GET("/token_info").header(HttpHeaders.IF_NONE_MATCH, etag), Map.class);
+            assertEquals(NOT_MODIFIED, response.getStatus());
+            assertTrue(response.getBody(Map.class).isEmpty());
+
+            // weak validators and lists are matched the same way as for the provisioning files
+            response = blockingClient.exchange(HttpRequest.GET("/token_info").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag), Map.class);
+            assertEquals(NOT_MODIFIED, response.getStatus());
+            response = blockingClient.exchange(HttpRequest.GET("/token_info").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag), Map.class);
+            assertEquals(NOT_MODIFIED, response.getStatus());
+
+            // changing the user's permissions changes the ETag
+            mockSecurityService.postConstruct();
+            dto.setId(membership.getId());
+            dto.setTopicAdmin(true);
+            request = HttpRequest.PUT("/group_membership", dto);
+            response = blockingClient.exchange(request, GroupUserResponseDTO.class);
+            assertEquals(OK, response.getStatus());
+
+            loginAsNonAdmin();
+
+            response = blockingClient.exchange(HttpRequest.GET("/token_info").header(HttpHeaders.IF_NONE_MATCH, etag), Map.class);
+            assertEquals(OK, response.getStatus());
+            assertNotEquals(etag, response.header(HttpHeaders.ETAG));
+            Map map = response.getBody(Map.class).get();
+            Map permissions = (Map) ((List) map.get("permissionsByGroup")).get(0);
+            assertTrue((Boolean) permissions.get("isTopicAdmin"));
+            etag = response.header(HttpHeaders.ETAG);
+            Object permissionsLastUpdated = map.get("permissionsLastUpdated");
+
+            // a rename moves the members' stamp, so instances that never saw it stop serving the old name too
+            mockSecurityService.postConstruct();
+            secondaryGroup.setName("SecondaryGroupRenamed");
+            response = blockingClient.exchange(HttpRequest.POST("/groups/save", secondaryGroup), Group.class);
+            assertEquals(OK, response.getStatus());
+
+            loginAsNonAdmin();
+
+            response = blockingClient.exchange(HttpRequest.GET("/token_info").header(HttpHeaders.IF_NONE_MATCH, etag), Map.class);
+            assertEquals(OK, response.getStatus());
+            assertNotEquals(etag, response.header(HttpHeaders.ETAG));
+            map = response.getBody(Map.class).get();
+            assertNotEquals(permissionsLastUpdated, map.get("permissionsLastUpdated"));
+            permissions = (Map) ((List) map.get("permissionsByGroup")).get(0);
+            assertEquals("SecondaryGroupRenamed", permissions.get("groupName"));
+        }
+
         @Test
         public void shouldHaveGroupPermissionsUpdatedIfAdminDeletesMembership() {
             mockSecurityService.postConstruct();
@@ -0,0 +1,129 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.data.model.Page;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.security.authentication.ServerAuthentication;
+import io.micronaut.security.utils.SecurityService;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationDTO;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUser;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static io.micronaut.http.HttpStatus.OK;
+import static io.micronaut.http.HttpStatus.UNAUTHORIZED;
+import static org.junit.jupiter.api.Assertions.*;
+
+// GroupUser rows changed without a local event or a stamp change are picked up once the entry expires.
+@Property(name = "spec.name", value = "GroupRoleIndexTest")
+@Property(name = "micronaut.security.filter.enabled", value = StringUtils.FALSE)
+@Property(name = "permissions-manager.authorization.role-index.ttl", value = "1s")
+@MicronautTest
+public class GroupRoleIndexTest {
+
+    private BlockingHttpClient blockingClient;
+
+    @Inject
+    MockSecurityService mockSecurityService;
+
+    @Inject
+    GroupRepository groupRepository;
+
+    @Inject
+    GroupUserRepository groupUserRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    DbCleanup dbCleanup;
+
+    @Inject
+    @Client("/api")
+    HttpClient client;
+
+    private Group group;
+    private GroupUser membership;
+
+    @Requires(property = "spec.name", value = "GroupRoleIndexTest")
+    @Replaces(SecurityService.class)
+    @Singleton
+    static class MockSecurityService extends SecurityServiceReplacement {
+    }
+
+    @BeforeEach
+    void setup() {
+        blockingClient = client.toBlocking();
+        dbCleanup.cleanup();
+
+        User user = userRepository.save(new User("jjones@test.test"));
+        group = groupRepository.save(new Group("PrimaryGroup"));
+        membership = new GroupUser(group, user);
+        membership.setApplicationAdmin(true);
+        membership = groupUserRepository.save(membership);
+
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "jjones@test.test",
+                Collections.emptyList(),
+                Map.of("isAdmin", false)
+        ));
+    }
+
+    @Test
+    void revokedRoleIsDeniedOnceTheEntryExpires() throws InterruptedException {
+        blockingClient.retrieve(HttpRequest.GET("/applications"), Page.class);
+
+        membership.setApplicationAdmin(false);
+        groupUserRepository.update(membership);
+
+        // still served from the index until the ttl runs out
+        HttpResponse<?> response = blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class);
+        assertEquals(OK, response.getStatus());
+
+        Thread.sleep(1100);
+
+        HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () ->
+                blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationTwo")), ApplicationDTO.class));
+        assertEquals(UNAUTHORIZED, exception.getStatus());
+    }
+
+    private ApplicationDTO application(String name) {
+        ApplicationDTO applicationDTO = new ApplicationDTO();
+        applicationDTO.setName(name);
+        applicationDTO.setGroup(group.getId());
+        return applicationDTO;
+    }
+}
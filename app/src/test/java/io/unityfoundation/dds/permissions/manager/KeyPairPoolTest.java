@@ -0,0 +1,69 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.security.KeyPairPool;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+@Property(name = "permissions-manager.crypto.key-pair-pool.enabled", value = "true")
+@Property(name = "permissions-manager.crypto.key-pair-pool.low-watermark", value = "2")
+@Property(name = "permissions-manager.crypto.key-pair-pool.high-watermark", value = "4")
+@Property(name = "permissions-manager.crypto.key-pair-pool.refill-threads", value = "2")
+public class KeyPairPoolTest {
+
+    @Inject
+    KeyPairPool keyPairPool;
+
+    @Test
+    void fillsToHighWatermarkAndNeverHandsOutAKeyPairTwice() throws Exception {
+        awaitDepth(4);
+
+        Set<String> publicKeys = new HashSet<>();
+        int takes = 20;
+        for (int i = 0; i < takes; i++) {
+            KeyPair keyPair = keyPairPool.take();
+            assertEquals(256, ((ECPublicKey) keyPair.getPublic()).getParams().getCurve().getField().getFieldSize());
+            assertTrue(publicKeys.add(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())));
+        }
+
+        Map<String, Object> statistics = keyPairPool.getStatistics();
+        long hits = (long) statistics.get("hits");
+        long misses = (long) statistics.get("misses");
+        assertTrue(hits >= 4);
+        assertEquals(takes, hits + misses);
+
+        // drained below the low watermark, so the pool refills in the background
+        awaitDepth(4);
+    }
+
+    private void awaitDepth(int depth) throws InterruptedException {
+        for (int i = 0; i < 200 && (int) keyPairPool.getStatistics().get("depth") < depth; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(depth, keyPairPool.getStatistics().get("depth"));
+    }
+}
@@ -0,0 +1,142 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.application.Application;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermission;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionRepository;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUser;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserRepository;
+import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicKind;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
+import jakarta.inject.Inject;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The lookups behind the main repository methods are answered from the indexes the migrations declare.
+// Plans are read with H2's EXPLAIN, which names the index used or reports a tableScan.
+@MicronautTest
+public class LookupIndexQueryPlanTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    GroupRepository groupRepository;
+
+    @Inject
+    GroupUserRepository groupUserRepository;
+
+    @Inject
+    TopicRepository topicRepository;
+
+    @Inject
+    ApplicationRepository applicationRepository;
+
+    @Inject
+    ApplicationPermissionRepository applicationPermissionRepository;
+
+    @Inject
+    DbCleanup dbCleanup;
+
+    private User user;
+    private Group group;
+    private Topic topic;
+    private Application application;
+    private ApplicationPermission permission;
+
+    @BeforeEach
+    void setup() {
+        dbCleanup.cleanup();
+
+        user = userRepository.save(new User("member@test.test"));
+        group = groupRepository.save(new Group("PrimaryGroup"));
+        groupUserRepository.save(new GroupUser(group, user));
+        topic = topicRepository.save(new Topic("PrimaryTopic", TopicKind.B, group));
+        application = applicationRepository.save(new Application("PrimaryApplication", group));
+        permission = applicationPermissionRepository.save(new ApplicationPermission(application, topic, true, true));
+    }
+
+    @Test
+    void membershipChecksUseTheUserGroupIndex() {
+        assertUsesIndex("idx_group_user_user_group",
+                "SELECT id FROM permissions_group_user WHERE permissions_user_id = " + user.getId() + " AND permissions_group_id = " + group.getId());
+        assertUsesIndex("idx_group_user_user_group",
+                "SELECT permissions_group_id FROM permissions_group_user WHERE permissions_user_id = " + user.getId());
+    }
+
+    @Test
+    void grantChecksUseTheApplicationTopicIndex() {
+        assertUsesIndex("idx_application_permission_application_topic",
+                "SELECT id FROM permissions_application_permission WHERE permissions_application_id = " + application.getId() +
+                        " AND permissions_topic_id = " + topic.getId());
+    }
+
+    @Test
+    void nameLookupsWithinAGroupUseTheGroupNameIndexes() {
+        assertUsesIndex("idx_topic_group_name",
+                "SELECT id FROM permissions_topic WHERE permissions_group_id = " + group.getId() + " AND name = 'PrimaryTopic'");
+        assertUsesIndex("idx_application_group_name",
+                "SELECT id FROM permissions_application WHERE permissions_group_id = " + group.getId() + " AND name = 'PrimaryApplication'");
+    }
+
+    @Test
+    void userRefreshTokenAndPartitionLookupsDoNotScan() {
+        assertUsesIndex("idx_refresh_token_hash", "SELECT id FROM refresh_token WHERE refresh_token = 'hash'");
+        assertUsesAnIndex("SELECT id FROM permissions_user WHERE email = 'member@test.test'");
+        assertUsesAnIndex("SELECT id FROM refresh_token WHERE username = 'member@test.test'");
+        assertUsesAnIndex("SELECT id FROM permissions_partition WHERE r_application_permission_id IN (" + permission.getId() + ")");
+        assertUsesAnIndex("SELECT id FROM permissions_partition WHERE w_application_permission_id IN (" + permission.getId() + ")");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = explain(sql);
+        assertTrue(plan.contains(index), plan);
+    }
+
+    private void assertUsesAnIndex(String sql) {
+        String plan = explain(sql);
+        assertFalse(plan.contains("tablescan"), plan);
+    }
+
+    private String explain(String sql) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.doReturningWork(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+                    resultSet.next();
+                    return resultSet.getString(1).toLowerCase();
+                }
+            });
+        }
+    }
+}
@@ -20,6 +20,7 @@ import io.micronaut.context.env.Environment;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.async.annotation.SingleResult;
 import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MutableHttpResponse;
@@ -36,6 +37,8 @@ import io.micronaut.security.endpoints.introspection.IntrospectionResponse;
 import io.micronaut.security.rules.SecurityRule;
 import io.micronaut.security.token.validator.RefreshTokenValidator;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserService;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.UserValidity;
+import io.unityfoundation.dds.permissions.manager.util.ETags;
 import org.reactivestreams.Publisher;
 
 import java.io.IOException;
@@ -89,11 +92,22 @@ public class MockDPMIntrospectionController {
         return getIntrospectionAndValidResponse(authentication, request);
     }
 
+    // The ETag covers the user's validity snapshot and the token's own claims, so polling with an unchanged
+    // session and permissions gets a 304 without serializing anything.
     private Publisher<MutableHttpResponse<?>> getIntrospectionAndValidResponse(Authentication authentication, HttpRequest<?> request) {
-        return Publishers.map(Publishers.map(processor.introspect(authentication, request), response -> {
-            groupUserService.checkUserValidity().forEach(response::addExtension);
-            return introspectionResponseAsJsonString(response);
-        }), HttpResponse::ok);
+        return Publishers.map(processor.introspect(authentication, request), response -> {
+            UserValidity validity = groupUserService.getUserValidity();
+            String version = validity.getVersion() + "-" + response.getIat() + "-" + response.getExp();
+            String etag = "\"" + version + "\"";
+            if (ETags.matches(request.getHeaders().get(HttpHeaders.IF_NONE_MATCH), version)) {
+                return HttpResponse.notModified().header(HttpHeaders.ETAG, etag);
+            }
+
+            validity.getAttributes().forEach(response::addExtension);
+            return HttpResponse.ok(introspectionResponseAsJsonString(response))
+                    .header(HttpHeaders.ETAG, etag)
+                    .header(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        });
     }
 
     @NonNull
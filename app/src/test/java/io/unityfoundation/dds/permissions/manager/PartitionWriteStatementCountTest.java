@@ -0,0 +1,183 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.security.utils.SecurityService;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.application.Application;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationRepository;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.AccessPermissionBodyDTO;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.AccessPermissionDTO;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermission;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ApplicationPermissionService;
+import io.unityfoundation.dds.permissions.manager.model.applicationpermission.ReadPartitionRepository;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.topic.Topic;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicKind;
+import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.security.AdminRegistry;
+import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
+import io.unityfoundation.dds.permissions.manager.testing.util.StatementCounter;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Partition writes cost the same number of statements however many partitions a permission has.
+@Property(name = "spec.name", value = "PartitionWriteStatementCountTest")
+@Property(name = "micronaut.security.filter.enabled", value = StringUtils.FALSE)
+@Property(name = "jpa.default.properties.hibernate.generate_statistics", value = StringUtils.TRUE)
+@MicronautTest
+public class PartitionWriteStatementCountTest {
+
+    private BlockingHttpClient blockingClient;
+
+    @Inject
+    MockSecurityService mockSecurityService;
+
+    @Inject
+    StatementCounter statementCounter;
+
+    @Inject
+    AdminRegistry adminRegistry;
+
+    @Inject
+    ApplicationPermissionService applicationPermissionService;
+
+    @Inject
+    GroupRepository groupRepository;
+
+    @Inject
+    TopicRepository topicRepository;
+
+    @Inject
+    ApplicationRepository applicationRepository;
+
+    @Inject
+    ReadPartitionRepository readPartitionRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    DbCleanup dbCleanup;
+
+    @Inject
+    @Client("/api")
+    HttpClient client;
+
+    private Group group;
+    private Application application;
+
+    @Requires(property = "spec.name", value = "PartitionWriteStatementCountTest")
+    @Replaces(SecurityService.class)
+    @Singleton
+    static class MockSecurityService extends SecurityServiceReplacement {
+    }
+
+    @BeforeEach
+    void setup() {
+        blockingClient = client.toBlocking();
+        dbCleanup.cleanup();
+
+        userRepository.save(new User("montesm@test.test.com", true));
+        adminRegistry.reload();
+        mockSecurityService.postConstruct();
+
+        group = groupRepository.save(new Group("PrimaryGroup"));
+        application = applicationRepository.save(new Application("PrimaryApplication", group));
+    }
+
+    @Test
+    void creatingAPermissionInsertsItsPartitionsInBatches() {
+        Topic smallTopic = topicRepository.save(new Topic("SmallTopic", TopicKind.B, group));
+        Topic largeTopic = topicRepository.save(new Topic("LargeTopic", TopicKind.B, group));
+
+        long small = statementCounter.statements(() -> grant(smallTopic, partitions(0, 5)));
+        Statistics statistics = statementCounter.getStatistics();
+        long large = statementCounter.statements(() -> grant(largeTopic, partitions(0, 40)));
+
+        assertEquals(small, large);
+        assertEquals(1 + 40 + 40, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void updatingPartitionsWritesOnlyTheDifference() {
+        ApplicationPermission small = grant(topicRepository.save(new Topic("SmallTopic", TopicKind.B, group)), partitions(0, 5));
+        ApplicationPermission large = grant(topicRepository.save(new Topic("LargeTopic", TopicKind.B, group)), partitions(0, 40));
+
+        // an unchanged update first, so both measured requests find the caller in the cache
+        update(small, partitions(0, 5));
+
+        // one partition removed and one added, for reads and for writes
+        long smallStatements = statementCounter.statements(() -> update(small, partitions(1, 6)));
+        Statistics statistics = statementCounter.getStatistics();
+        long largeStatements = statementCounter.statements(() -> update(large, partitions(1, 41)));
+
+        assertEquals(smallStatements, largeStatements);
+        assertEquals(2, statistics.getEntityInsertCount());
+        assertEquals(partitions(1, 41), new HashSet<>(readPartitionRepository.findPartitionNameByApplicationPermissionId(large.getId())));
+    }
+
+    @Test
+    void unchangedPartitionsAreNotWritten() {
+        ApplicationPermission permission = grant(topicRepository.save(new Topic("Topic", TopicKind.B, group)), partitions(0, 40));
+        long generation = applicationRepository.findById(application.getId()).get().getPermissionsGeneration();
+
+        Statistics statistics = statementCounter.reset();
+        AccessPermissionDTO dto = update(permission, partitions(0, 40));
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(partitions(0, 40), dto.getReadPartitions());
+        assertEquals(partitions(0, 40), dto.getWritePartitions());
+        assertEquals(generation, applicationRepository.findById(application.getId()).get().getPermissionsGeneration());
+    }
+
+    private ApplicationPermission grant(Topic topic, Set<String> partitions) {
+        AccessPermissionBodyDTO body = new AccessPermissionBodyDTO(partitions, partitions);
+        body.setRead(true);
+        body.setWrite(true);
+        return applicationPermissionService.saveNewPermission(application, topic, body);
+    }
+
+    private AccessPermissionDTO update(ApplicationPermission permission, Set<String> partitions) {
+        AccessPermissionBodyDTO body = new AccessPermissionBodyDTO(partitions, partitions);
+        body.setRead(true);
+        body.setWrite(true);
+        return blockingClient.retrieve(HttpRequest.PUT("/application_permissions/" + permission.getId(), body), AccessPermissionDTO.class);
+    }
+
+    private static Set<String> partitions(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "partition" + i).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationService.PubSubEntry;
+import io.unityfoundation.dds.permissions.manager.model.application.PermissionsGrant;
+import io.unityfoundation.dds.permissions.manager.model.application.PermissionsXmlWriter;
+import io.unityfoundation.dds.permissions.manager.model.application.TemplateService;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Both renderers must produce exactly the golden file, byte for byte.
+@MicronautTest
+public class PermissionsXmlWriterTest {
+
+    @Inject
+    TemplateService templateService;
+
+    @Inject
+    PermissionsXmlWriter permissionsXmlWriter;
+
+    private static final String SUBJECT = "CN=20_unity,GN=ApplicationOne,SN=7";
+    private static final String VALID_START = "2023-01-01T00:00:00Z";
+    private static final String VALID_END = "2023-01-31T00:00:00Z";
+
+    @Test
+    void noGrants() throws IOException {
+        assertMatchesGolden("no-grants", grant(20L, List.of(), List.of()));
+    }
+
+    @Test
+    void publishOnly() throws IOException {
+        List<PubSubEntry> publishes = List.of(
+                new PubSubEntry(List.of("C.7.topicA", "C.7.topicB"), List.of("partition1", "partition2")),
+                new PubSubEntry(List.of("B.7.topicC"), new ArrayList<>()));
+        assertMatchesGolden("publish-only", grant(20L, publishes, List.of()));
+    }
+
+    @Test
+    void publishAndSubscribe() throws IOException {
+        List<PubSubEntry> publishes = List.of(new PubSubEntry(List.of("C.7.topicA"), List.of("partition1")));
+        List<PubSubEntry> subscribes = List.of(
+                new PubSubEntry(List.of("C.7.topicB", "C.7.topicC"), List.of("partition3", "partition4")),
+                new PubSubEntry(List.of("B.7.topicD"), new ArrayList<>()));
+        assertMatchesGolden("publish-and-subscribe", grant(20L, publishes, subscribes));
+    }
+
+    @Test
+    void escapedValuesAreWrittenVerbatim() throws IOException {
+        List<PubSubEntry> subscribes = List.of(
+                new PubSubEntry(List.of("C.7.&lt;aa&gt; &apos;Some&quot; topic&amp;name"), List.of("a&amp;b", "*")));
+        assertMatchesGolden("escaped-values", new PermissionsGrant(20L, "CN=20_unity,GN=R&amp;D \\&lt;App\\&gt;,SN=7",
+                VALID_START, VALID_END, 1L, List.of(), subscribes));
+    }
+
+    @Test
+    void largeIdsAreNotGrouped() throws IOException {
+        assertMatchesGolden("large-ids", new PermissionsGrant(123456L, SUBJECT, VALID_START, VALID_END, 232L, List.of(), List.of()));
+    }
+
+    @Test
+    void placeholdersSurviveRendering() throws IOException {
+        List<PubSubEntry> publishes = List.of(new PubSubEntry(List.of("C.7.topicA"), new ArrayList<>()));
+        assertMatchesGolden("placeholders", new PermissionsGrant(20L, "@@subject@@", "@@validStart@@", "@@validEnd@@", 1L,
+                publishes, List.of()));
+    }
+
+    private void assertMatchesGolden(String name, PermissionsGrant grant) throws IOException {
+        String golden;
+        try (InputStream inputStream = getClass().getResourceAsStream("/golden/permissions/" + name + ".xml")) {
+            assertNotNull(inputStream, "missing golden file " + name);
+            golden = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertEquals(golden, templateService.mergeDataAndTemplate(grant.toDataModel()));
+
+        StringBuilder out = new StringBuilder();
+        permissionsXmlWriter.write(grant, out);
+        assertEquals(golden, out.toString());
+    }
+
+    private static PermissionsGrant grant(Long applicationId, List<PubSubEntry> publishes, List<PubSubEntry> subscribes) {
+        return new PermissionsGrant(applicationId, SUBJECT, VALID_START, VALID_END, 1L, publishes, subscribes);
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.errors.OauthErrorResponseException;
+import io.micronaut.security.token.event.RefreshTokenGeneratedEvent;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
+import io.unityfoundation.dds.permissions.manager.model.user.UserService;
+import io.unityfoundation.dds.permissions.manager.security.RefreshTokenPersistenceImpl;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+public class RefreshTokenPersistenceTest {
+
+    @Inject
+    RefreshTokenPersistenceImpl refreshTokenPersistence;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    UserService userService;
+
+    @Test
+    void tokenIsAcceptedUntilRevokedAndThenSwept() {
+        String refreshToken = persist("101");
+
+        assertEquals("101", authenticate(refreshToken).getName());
+        // served from the validated token cache
+        assertEquals("101", authenticate(refreshToken).getName());
+
+        refreshTokenPersistence.revokeByUsername("101");
+        OauthErrorResponseException exception = assertThrows(OauthErrorResponseException.class, () -> authenticate(refreshToken));
+        assertEquals("refresh token revoked", exception.getErrorDescription());
+
+        refreshTokenPersistence.sweep();
+        exception = assertThrows(OauthErrorResponseException.class, () -> authenticate(refreshToken));
+        assertEquals("refresh token not found", exception.getErrorDescription());
+    }
+
+    @Test
+    void sweepKeepsLiveTokens() {
+        String refreshToken = persist("102");
+
+        refreshTokenPersistence.sweep();
+
+        assertEquals("102", authenticate(refreshToken).getName());
+    }
+
+    @Test
+    void removedAdminCannotRefreshFromTheCache() {
+        User admin = userRepository.save(new User("removed-admin@test.test", true));
+        String refreshToken = persist("removed-admin@test.test");
+        assertEquals("removed-admin@test.test", authenticate(refreshToken).getName());
+
+        // without any memberships, losing super admin deletes the user
+        assertTrue(userService.removeAdminPrivilegeById(admin.getId()));
+
+        OauthErrorResponseException exception = assertThrows(OauthErrorResponseException.class, () -> authenticate(refreshToken));
+        assertEquals("refresh token revoked", exception.getErrorDescription());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        OauthErrorResponseException exception = assertThrows(OauthErrorResponseException.class, () ->
+                authenticate(UUID.randomUUID().toString()));
+        assertEquals("refresh token not found", exception.getErrorDescription());
+    }
+
+    private String persist(String username) {
+        String refreshToken = UUID.randomUUID().toString();
+        refreshTokenPersistence.persistToken(new RefreshTokenGeneratedEvent(
+                Authentication.build(username, List.of(UserRole.APPLICATION.toString())), refreshToken));
+        return refreshToken;
+    }
+
+    private Authentication authenticate(String refreshToken) {
+        return Mono.from(refreshTokenPersistence.getAuthentication(refreshToken)).block();
+    }
+}
@@ -0,0 +1,315 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.data.model.Page;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.client.BlockingHttpClient;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.security.authentication.ServerAuthentication;
+import io.micronaut.security.utils.SecurityService;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.unityfoundation.dds.permissions.manager.model.application.ApplicationDTO;
+import io.unityfoundation.dds.permissions.manager.model.group.Group;
+import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUser;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserDTO;
+import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserRepository;
+import io.unityfoundation.dds.permissions.manager.model.user.User;
+import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.security.AdminRegistry;
+import io.unityfoundation.dds.permissions.manager.security.SecurityUtil;
+import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
+import io.unityfoundation.dds.permissions.manager.testing.util.StatementCounter;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+import static io.micronaut.http.HttpStatus.OK;
+import static io.micronaut.http.HttpStatus.UNAUTHORIZED;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the statements each request issues to resolve the caller and its group roles.
+@Property(name = "spec.name", value = "SecurityUtilStatementCountTest")
+@Property(name = "micronaut.security.filter.enabled", value = StringUtils.FALSE)
+@Property(name = "jpa.default.properties.hibernate.generate_statistics", value = StringUtils.TRUE)
+@MicronautTest
+public class SecurityUtilStatementCountTest {
+
+    private static final String USER_ENTITY = "model.user.User ";
+    private static final String GROUP_USER_ENTITY = "model.groupuser.GroupUser ";
+
+    private BlockingHttpClient blockingClient;
+
+    @Inject
+    MockSecurityService mockSecurityService;
+
+    @Inject
+    SecurityUtil securityUtil;
+
+    @Inject
+    StatementCounter statementCounter;
+
+    @Inject
+    AdminRegistry adminRegistry;
+
+    @Inject
+    GroupRepository groupRepository;
+
+    @Inject
+    GroupUserRepository groupUserRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    DbCleanup dbCleanup;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    @Client("/api")
+    HttpClient client;
+
+    private Group group;
+    private GroupUser membership;
+
+    @Requires(property = "spec.name", value = "SecurityUtilStatementCountTest")
+    @Replaces(SecurityService.class)
+    @Singleton
+    static class MockSecurityService extends SecurityServiceReplacement {
+    }
+
+    @BeforeEach
+    void setup() {
+        blockingClient = client.toBlocking();
+        dbCleanup.cleanup();
+
+        User user = userRepository.save(new User("jjones@test.test"));
+        group = groupRepository.save(new Group("PrimaryGroup"));
+        membership = new GroupUser(group, user);
+        membership.setApplicationAdmin(true);
+        membership = groupUserRepository.save(membership);
+
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "jjones@test.test",
+                Collections.emptyList(),
+                Map.of("isAdmin", false)
+        ));
+    }
+
+    @Test
+    void eachCallOutsideARequestQueriesTheUser() {
+        statementCounter.reset();
+
+        assertFalse(securityUtil.isCurrentUserAdmin());
+        assertTrue(securityUtil.getCurrentlyAuthenticatedUser().isPresent());
+
+        assertEquals(2, statementCounter.executions(USER_ENTITY, "email"));
+    }
+
+    @Test
+    void adminChecksForKnownAdminsSkipTheUserLookup() {
+        userRepository.save(new User("admin@test.test", true));
+        Map<String, Object> report = adminRegistry.checkConsistency();
+        assertEquals(false, report.get("consistent"));
+        assertEquals(Set.of("admin@test.test"), report.get("missing"));
+
+        adminRegistry.reload();
+        assertEquals(true, adminRegistry.checkConsistency().get("consistent"));
+
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "admin@test.test",
+                Collections.emptyList(),
+                Map.of("isAdmin", true)
+        ));
+        statementCounter.reset();
+
+        assertTrue(securityUtil.isCurrentUserAdmin());
+        assertEquals(0, statementCounter.executions(USER_ENTITY, "email"));
+    }
+
+    @Test
+    void listingApplicationsQueriesUserAndMembershipsOnce() {
+        statementCounter.reset();
+
+        Page page = blockingClient.retrieve(HttpRequest.GET("/applications"), Page.class);
+        assertEquals(0, page.getContent().size());
+
+        assertEquals(1, statementCounter.executions(USER_ENTITY, "email"));
+        assertEquals(1, statementCounter.executions(GROUP_USER_ENTITY, "permissionsUser"));
+    }
+
+    @Test
+    void savingAnApplicationQueriesUserAndMembershipsOnce() {
+        statementCounter.reset();
+
+        HttpResponse<?> response = blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class);
+        assertEquals(OK, response.getStatus());
+
+        // the admin check and the application admin check share one principal and one membership lookup
+        assertEquals(1, statementCounter.executions(USER_ENTITY, "email"));
+        assertEquals(1, statementCounter.executions(GROUP_USER_ENTITY, "permissionsUser"));
+    }
+
+    @Test
+    void laterRequestsReadMembershipsFromTheRoleIndex() {
+        blockingClient.retrieve(HttpRequest.GET("/applications"), Page.class);
+
+        statementCounter.reset();
+
+        HttpResponse<?> response = blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class);
+        assertEquals(OK, response.getStatus());
+
+        assertEquals(0, statementCounter.executions(GROUP_USER_ENTITY, "permissionsUser"));
+    }
+
+    @Test
+    void updatingAMembershipDropsItFromTheRoleIndex() {
+        blockingClient.retrieve(HttpRequest.GET("/applications"), Page.class);
+
+        userRepository.save(new User("admin@test.test", true));
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "admin@test.test",
+                Collections.emptyList(),
+                Map.of("isAdmin", true)
+        ));
+        GroupUserDTO dto = new GroupUserDTO();
+        dto.setId(membership.getId());
+        dto.setPermissionsGroup(group.getId());
+        dto.setEmail("jjones@test.test");
+        dto.setApplicationAdmin(false);
+        HttpResponse<?> response = blockingClient.exchange(HttpRequest.PUT("/group_membership", dto));
+        assertEquals(OK, response.getStatus());
+
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "jjones@test.test",
+                Collections.emptyList(),
+                Map.of("isAdmin", false)
+        ));
+        HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () ->
+                blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class));
+        assertEquals(UNAUTHORIZED, exception.getStatus());
+    }
+
+    @Test
+    void membershipsChangedThroughAnotherInstanceAreReloadedOnceTheStampMoves() {
+        blockingClient.retrieve(HttpRequest.GET("/applications"), Page.class);
+
+        // another instance revokes the role: the row and the user's stamp change, but no event reaches this one
+        membership.setApplicationAdmin(false);
+        groupUserRepository.update(membership);
+        User user = userRepository.findByEmail("jjones@test.test").get();
+        user.setPermissionsLastUpdated(System.currentTimeMillis());
+        userRepository.update(user);
+
+        HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () ->
+                blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class));
+        assertEquals(UNAUTHORIZED, exception.getStatus());
+    }
+
+    @Test
+    void tokenClaimsAreCheckedAgainstTheStoredStampRatherThanACachedCopy() throws SQLException {
+        Long stamp = userRepository.findByEmail("jjones@test.test").get().getPermissionsLastUpdated();
+        loginWithClaims(stamp, true);
+        HttpResponse<?> response = blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class);
+        assertEquals(OK, response.getStatus());
+
+        // another instance revokes the role; nothing this instance caches hears of it
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement revoke = connection.prepareStatement(
+                     "UPDATE permissions_group_user SET application_admin = FALSE WHERE id = ?");
+             PreparedStatement touch = connection.prepareStatement(
+                     "UPDATE permissions_user SET permissions_last_updated = ? WHERE email = ?")) {
+            revoke.setLong(1, membership.getId());
+            assertEquals(1, revoke.executeUpdate());
+            touch.setLong(1, stamp + 1);
+            touch.setString(2, "jjones@test.test");
+            assertEquals(1, touch.executeUpdate());
+        }
+
+        HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () ->
+                blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationTwo")), ApplicationDTO.class));
+        assertEquals(UNAUTHORIZED, exception.getStatus());
+    }
+
+    @Test
+    void membershipChecksUseTokenClaimsWhileTheStampMatches() {
+        Long stamp = userRepository.findByEmail("jjones@test.test").get().getPermissionsLastUpdated();
+        loginWithClaims(stamp, true);
+
+        statementCounter.reset();
+
+        HttpResponse<?> response = blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class);
+        assertEquals(OK, response.getStatus());
+
+        assertEquals(1, statementCounter.executions(USER_ENTITY, "email"));
+        assertEquals(0, statementCounter.executions(GROUP_USER_ENTITY, "permissionsUser"));
+    }
+
+    @Test
+    void staleTokenClaimsAreNotTrusted() {
+        membership.setApplicationAdmin(false);
+        groupUserRepository.update(membership);
+
+        Long stamp = userRepository.findByEmail("jjones@test.test").get().getPermissionsLastUpdated();
+        loginWithClaims(stamp - 1, true);
+
+        statementCounter.reset();
+
+        HttpClientResponseException exception = assertThrowsExactly(HttpClientResponseException.class, () ->
+                blockingClient.exchange(HttpRequest.POST("/applications/save", application("ApplicationOne")), ApplicationDTO.class));
+        assertEquals(UNAUTHORIZED, exception.getStatus());
+        assertEquals(1, statementCounter.executions(GROUP_USER_ENTITY, "permissionsUser"));
+    }
+
+    private void loginWithClaims(Long permissionsLastUpdated, boolean applicationAdmin) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("isAdmin", false);
+        attributes.put("permissionsLastUpdated", permissionsLastUpdated);
+        attributes.put("permissionsByGroup", List.of(Map.of(
+                "groupId", group.getId(),
+                "groupName", group.getName(),
+                "isGroupAdmin", false,
+                "isTopicAdmin", false,
+                "isApplicationAdmin", applicationAdmin)));
+        mockSecurityService.setServerAuthentication(new ServerAuthentication(
+                "jjones@test.test",
+                Collections.emptyList(),
+                attributes
+        ));
+    }
+
+    private ApplicationDTO application(String name) {
+        ApplicationDTO applicationDTO = new ApplicationDTO();
+        applicationDTO.setName(name);
+        applicationDTO.setGroup(group.getId());
+        return applicationDTO;
+    }
+}
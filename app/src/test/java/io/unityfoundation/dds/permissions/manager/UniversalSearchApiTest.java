@@ -43,6 +43,8 @@ import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
 import io.unityfoundation.dds.permissions.manager.model.user.User;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRole;
+import io.unityfoundation.dds.permissions.manager.search.SearchDocument;
+import io.unityfoundation.dds.permissions.manager.search.SearchIndex;
 import io.unityfoundation.dds.permissions.manager.testing.util.DbCleanup;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -79,6 +81,9 @@ class UniversalSearchApiTest {
     @Inject
     TopicRepository topicRepository;
 
+    @Inject
+    SearchIndex searchIndex;
+
     @Inject
     DbCleanup dbCleanup;
 
@@ -349,6 +354,59 @@ class UniversalSearchApiTest {
     }
 
 
+    @Test
+    void pagesPastFiftyResultsPerType() {
+        Group group = groupRepository.findByName("GroupOne").get();
+        for (int i = 0; i < 60; i++) {
+            topicRepository.save(new Topic("PagedTopic" + i, TopicKind.B, "", true, group));
+        }
+
+        Page page = blockingClient.retrieve(HttpRequest.GET("/search?query=pagedtopic&page=2&size=25"), Page.class);
+        assertEquals(60, page.getTotalSize());
+        assertEquals(10, page.getContent().size());
+    }
+
+    @Test
+    void ranksExactNameMatchesFirst() {
+        Page page = blockingClient.retrieve(HttpRequest.GET("/search?query=topicone"), Page.class);
+        List<Map> results = page.getContent();
+
+        // TopicOne by name, TopicOne1 by prefix, ApplicationOnez3 is not a match
+        assertEquals(2, results.size());
+        assertEquals("TopicOne", ((Map) results.get(0).get("entity")).get("name"));
+        assertEquals("TopicOne1", ((Map) results.get(1).get("entity")).get("name"));
+    }
+
+    @Test
+    void doesNotFindDeletedOrPrivateEntities() {
+        Map topicTwo = (Map) ((Map) blockingClient.retrieve(HttpRequest.GET("/search?query=topictwo&topics=true"), Page.class)
+                .getContent().get(0)).get("entity");
+        blockingClient.exchange(HttpRequest.DELETE("/topics/" + topicTwo.get("id"), Map.of()));
+        assertEquals(0, blockingClient.retrieve(HttpRequest.GET("/search?query=topictwo&topics=true"), Page.class).getTotalSize());
+
+        Application applicationTwo = applicationRepository.findByNameEquals("ApplicationTwo").get();
+        applicationTwo.setMakePublic(false);
+        applicationRepository.update(applicationTwo);
+        Page applications = blockingClient.retrieve(HttpRequest.GET("/search?query=applicationtwo&applications=true"), Page.class);
+        assertEquals(1, applications.getTotalSize());
+        assertEquals("ApplicationTwo1", ((Map) ((Map) applications.getContent().get(0)).get("entity")).get("name"));
+    }
+
+    @Test
+    void doesNotReturnEntitiesMadePrivateThroughAnotherInstance() {
+        Application applicationTwo = applicationRepository.findByNameEquals("ApplicationTwo").get();
+        applicationTwo.setMakePublic(false);
+        applicationRepository.update(applicationTwo);
+        // this instance's index has not seen the change yet
+        searchIndex.index(new SearchDocument(DPMEntity.APPLICATION, applicationTwo.getId(), applicationTwo.getName(),
+                applicationTwo.getDescription(), true));
+
+        Page applications = blockingClient.retrieve(HttpRequest.GET("/search?query=applicationtwo&applications=true"), Page.class);
+        List<Map> results = applications.getContent();
+        assertEquals(1, results.size());
+        assertEquals("ApplicationTwo1", ((Map) results.get(0).get("entity")).get("name"));
+    }
+
     private HttpResponse<?> createGroup(String groupName) {
         SimpleGroupDTO group = new SimpleGroupDTO();
         group.setName(groupName);
@@ -19,6 +19,8 @@ import io.unityfoundation.dds.permissions.manager.model.group.GroupRepository;
 import io.unityfoundation.dds.permissions.manager.model.groupuser.GroupUserRepository;
 import io.unityfoundation.dds.permissions.manager.model.topic.TopicRepository;
 import io.unityfoundation.dds.permissions.manager.model.user.UserRepository;
+import io.unityfoundation.dds.permissions.manager.search.SearchIndex;
+import io.unityfoundation.dds.permissions.manager.security.AdminRegistry;
 import jakarta.inject.Singleton;
 
 import javax.transaction.Transactional;
@@ -31,14 +33,19 @@ public class DbCleanup {
     private final UserRepository userRepository;
     private final ApplicationPermissionRepository applicationPermissionRepository;
     private final GroupUserRepository groupUserRepository;
+    private final AdminRegistry adminRegistry;
+    private final SearchIndex searchIndex;
 
-    public DbCleanup(TopicRepository topicRepository, GroupRepository groupRepository, ApplicationRepository applicationRepository, UserRepository userRepository, ApplicationPermissionRepository applicationPermissionRepository, GroupUserRepository groupUserRepository) {
+    public DbCleanup(TopicRepository topicRepository, GroupRepository groupRepository, ApplicationRepository applicationRepository, UserRepository userRepository, ApplicationPermissionRepository applicationPermissionRepository, GroupUserRepository groupUserRepository,
+                     AdminRegistry adminRegistry, SearchIndex searchIndex) {
         this.topicRepository = topicRepository;
         this.groupRepository = groupRepository;
         this.applicationRepository = applicationRepository;
         this.userRepository = userRepository;
         this.applicationPermissionRepository = applicationPermissionRepository;
         this.groupUserRepository = groupUserRepository;
+        this.adminRegistry = adminRegistry;
+        this.searchIndex = searchIndex;
     }
 
     @Transactional
@@ -49,5 +56,9 @@ public class DbCleanup {
         applicationRepository.deleteAll();
         groupRepository.deleteAll();
         userRepository.deleteAll();
+        // the users were deleted behind UserService's back
+        adminRegistry.reload();
+        // and everything else behind the search index's
+        searchIndex.rebuild();
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+// Copyright 2023 DDS Permissions Manager Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.unityfoundation.dds.permissions.manager.testing.util;
+
+import jakarta.inject.Singleton;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+
+// Counts what Hibernate sends to the database. Tests using it set
+// jpa.default.properties.hibernate.generate_statistics to true.
+@Singleton
+public class StatementCounter {
+    private final SessionFactory sessionFactory;
+
+    public StatementCounter(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    // Statements prepared while the work runs.
+    public long statements(Runnable work) {
+        Statistics statistics = reset();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Starts counting afresh.
+    public Statistics reset() {
+        Statistics statistics = getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    public Statistics getStatistics() {
+        return sessionFactory.getStatistics();
+    }
+
+    // Executions since the last reset of the queries on the entity whose text contains the predicate.
+    public long executions(String entity, String predicate) {
+        Statistics statistics = getStatistics();
+        return Arrays.stream(statistics.getQueries())
+                .filter(query -> query.contains(entity) && query.contains(predicate))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+    }
+}